@@ -0,0 +1,101 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.benchmark;
+
+import com.karankumar.bookproject.backend.model.Author;
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.BookGenre;
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import com.karankumar.bookproject.backend.model.RatingScale;
+import com.karankumar.bookproject.backend.service.PredefinedShelfService;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A read shelf of synthetic books, built without Spring or a database. The books are generated
+ * from a fixed seed so that every run benchmarks the same shelf
+ */
+@State(Scope.Benchmark)
+public class ReadShelfState {
+    private static final long SEED = 42;
+    private static final int AUTHORS = 1_000;
+    private static final int MAX_PAGES = 1_200;
+
+    @Param({"100", "10000", "1000000"})
+    public int books;
+
+    public PredefinedShelf readShelf;
+    public PredefinedShelfService predefinedShelfService;
+
+    @Setup
+    public void setUp() {
+        readShelf = createReadShelf(books);
+        predefinedShelfService = new ReadShelfOnlyService(readShelf);
+    }
+
+    static PredefinedShelf createReadShelf(int numberOfBooks) {
+        Random random = new Random(SEED);
+        PredefinedShelf readShelf = new PredefinedShelf(PredefinedShelf.ShelfName.READ, null);
+        BookGenre[] genres = BookGenre.values();
+        RatingScale[] ratings = RatingScale.values();
+        Author[] authors = new Author[AUTHORS];
+        for (int i = 0; i < AUTHORS; i++) {
+            authors[i] = new Author("Author " + i);
+        }
+        LocalDate today = LocalDate.now();
+
+        for (int i = 0; i < numberOfBooks; i++) {
+            // the constructor adds the book to the shelf
+            Book book = new Book("Book " + i, authors[random.nextInt(AUTHORS)], readShelf);
+            book.setBookGenre(Set.of(genres[random.nextInt(genres.length)]));
+            book.setRating(ratings[random.nextInt(ratings.length)]);
+            // some books have no page count or finish date, as in real libraries
+            if (random.nextInt(10) != 0) {
+                book.setNumberOfPages(1 + random.nextInt(MAX_PAGES));
+            }
+            if (random.nextInt(10) != 0) {
+                book.setDateFinishedReading(today.minusDays(random.nextInt(3 * 365)));
+            }
+        }
+        return readShelf;
+    }
+
+    /**
+     * Only finds the read shelf, which is all that the statistics need
+     */
+    private static class ReadShelfOnlyService extends PredefinedShelfService {
+        private final PredefinedShelf readShelf;
+
+        ReadShelfOnlyService(PredefinedShelf readShelf) {
+            super(null, null);
+            this.readShelf = readShelf;
+        }
+
+        @Override
+        public PredefinedShelf findReadShelf() {
+            return readShelf;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.benchmark;
+
+import com.karankumar.bookproject.backend.goal.ReadingGoalCalculator;
+import com.karankumar.bookproject.backend.model.ReadingGoal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReadingGoalCalculatorBenchmark {
+    @Benchmark
+    public int booksReadThisYear(ReadShelfState state) {
+        return ReadingGoalCalculator.howManyReadThisYear(ReadingGoal.GoalType.BOOKS,
+                state.readShelf);
+    }
+
+    @Benchmark
+    public int pagesReadThisYear(ReadShelfState state) {
+        return ReadingGoalCalculator.howManyReadThisYear(ReadingGoal.GoalType.PAGES,
+                state.readShelf);
+    }
+}
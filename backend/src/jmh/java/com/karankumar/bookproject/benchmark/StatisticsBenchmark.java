@@ -0,0 +1,109 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.benchmark;
+
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.BookGenre;
+import com.karankumar.bookproject.backend.statistics.GenreStatistics;
+import com.karankumar.bookproject.backend.statistics.PageStatistics;
+import com.karankumar.bookproject.backend.statistics.RatingStatistics;
+import com.karankumar.bookproject.backend.statistics.StatisticsSnapshot;
+import com.karankumar.bookproject.backend.statistics.YearStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each benchmark constructs the statistics class, as the statistics view does, and then computes
+ * one figure. The snapshot benchmark computes every figure in one pass for comparison
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class StatisticsBenchmark {
+    @Benchmark
+    public Optional<BookGenre> mostReadGenre(ReadShelfState state) {
+        return new GenreStatistics(state.predefinedShelfService).findMostReadGenre();
+    }
+
+    @Benchmark
+    public Optional<BookGenre> mostLikedGenre(ReadShelfState state) {
+        return new GenreStatistics(state.predefinedShelfService).findMostLikedGenre();
+    }
+
+    @Benchmark
+    public Optional<BookGenre> leastLikedGenre(ReadShelfState state) {
+        return new GenreStatistics(state.predefinedShelfService).findLeastLikedGenre();
+    }
+
+    @Benchmark
+    public Optional<Book> bookWithMostPages(ReadShelfState state) {
+        return new PageStatistics(state.predefinedShelfService).findBookWithMostPages();
+    }
+
+    @Benchmark
+    public Optional<Double> averagePageLength(ReadShelfState state) {
+        return new PageStatistics(state.predefinedShelfService).calculateAveragePageLength();
+    }
+
+    @Benchmark
+    public Optional<Book> mostLikedBook(ReadShelfState state) {
+        return new RatingStatistics(state.predefinedShelfService).findMostLikedBook();
+    }
+
+    @Benchmark
+    public Optional<Book> leastLikedBook(ReadShelfState state) {
+        return new RatingStatistics(state.predefinedShelfService).findLeastLikedBook();
+    }
+
+    @Benchmark
+    public Optional<Double> averageRatingGiven(ReadShelfState state) {
+        return new RatingStatistics(state.predefinedShelfService).calculateAverageRatingGiven();
+    }
+
+    @Benchmark
+    public Optional<Book> mostLikedBookThisYear(ReadShelfState state) {
+        return new YearStatistics(state.predefinedShelfService).findMostLikedBookThisYear();
+    }
+
+    @Benchmark
+    public Optional<Book> leastLikedBookThisYear(ReadShelfState state) {
+        return new YearStatistics(state.predefinedShelfService).findLeastLikedBookThisYear();
+    }
+
+    @Benchmark
+    public Optional<Double> averageRatingGivenThisYear(ReadShelfState state) {
+        return new YearStatistics(state.predefinedShelfService)
+                .calculateAverageRatingGivenThisYear();
+    }
+
+    @Benchmark
+    public StatisticsSnapshot snapshot(ReadShelfState state) {
+        return StatisticsSnapshot.of(state.readShelf.getBooks());
+    }
+}
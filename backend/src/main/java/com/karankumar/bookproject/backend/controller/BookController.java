@@ -18,7 +18,10 @@ import org.apache.commons.lang3.NotImplementedException;
 import org.modelmapper.Converter;
 import org.modelmapper.AbstractConverter;
 import org.modelmapper.ModelMapper;
+import com.karankumar.bookproject.backend.dto.BookDetails;
 import com.karankumar.bookproject.backend.dto.BookDto;
+import com.karankumar.bookproject.backend.dto.BookPage;
+import com.karankumar.bookproject.backend.dto.BookSummary;
 import com.karankumar.bookproject.backend.model.Book;
 import com.karankumar.bookproject.backend.model.BookGenre;
 import com.karankumar.bookproject.backend.model.BookFormat;
@@ -33,6 +36,7 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -103,15 +107,42 @@ public class BookController {
     };
 
     @GetMapping()
+    @ConditionalGet(perUser = false)
     // TODO: only retrieve books that belong to the logged in user
-    public List<Book> all() {
-        return bookService.findAll();
+    public List<BookSummary> all() {
+        return bookService.findAllSummaries();
     }
     
+    /**
+     * Keyset paginated alternative to {@link #all()}, used when a page size is requested.
+     * The next page is fetched by passing back the nextPageToken of the previous page
+     */
+    @GetMapping(params = "pageSize")
+    @ConditionalGet(perUser = false)
+    // TODO: only retrieve books that belong to the logged in user
+    public BookPage page(@RequestParam("pageSize") int pageSize,
+                         @RequestParam(value = "pageToken", required = false) String pageToken) {
+        try {
+            return bookService.findPage(pageToken, pageSize);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Full-text search over the logged in user's books. The most relevant books come first
+     */
+    @GetMapping(params = "search")
+    @ConditionalGet
+    public List<Book> search(@RequestParam("search") String search) {
+        return bookService.findAll(search);
+    }
+
     @GetMapping("/{id}")
+    @ConditionalGet(perUser = false)
     // TODO: only retrieve books that belong to the logged in user
-    public Book findById(@PathVariable Long id) {
-    	return bookService.findById(id)
+    public BookDetails findById(@PathVariable Long id) {
+    	return bookService.findDetailsById(id)
     		.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                 String.format(BOOK_NOT_FOUND_ERROR_MESSAGE, id))
             );
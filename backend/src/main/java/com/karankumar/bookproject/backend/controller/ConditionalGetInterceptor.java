@@ -0,0 +1,77 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.controller;
+
+import com.karankumar.bookproject.backend.service.ChangeVersionService;
+import com.karankumar.bookproject.backend.service.UserService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Adds an ETag and a Last-Modified header to the responses of endpoints annotated with
+ * {@link ConditionalGet}, and answers requests for data that has not changed since with a 304
+ * without running the endpoint (and so without querying the book tables)
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+    private final ChangeVersionService changeVersionService;
+    private final UserService userService;
+
+    public ConditionalGetInterceptor(ChangeVersionService changeVersionService,
+                                     @Lazy UserService userService) {
+        this.changeVersionService = changeVersionService;
+        this.userService = userService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                             Object handler) {
+        if (!(handler instanceof HandlerMethod) || !HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        ConditionalGet conditionalGet = ((HandlerMethod) handler).getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            return true;
+        }
+
+        // read before the endpoint runs, so a change made in the meantime can only make the tag
+        // older than the response (which costs the client one more full response)
+        String tag;
+        long lastModified;
+        if (conditionalGet.perUser()) {
+            Long userId = userService.getCurrentUser().getId();
+            tag = changeVersionService.getTag(userId);
+            lastModified = changeVersionService.getLastModified(userId);
+        } else {
+            tag = changeVersionService.getTagForAllUsers();
+            lastModified = changeVersionService.getLastModifiedForAllUsers();
+        }
+
+        // the response is private to the user, and has to be revalidated on every poll
+        response.setHeader("Cache-Control", "private, no-cache");
+        boolean notModified = new ServletWebRequest(request, response).checkNotModified(tag, lastModified);
+        return !notModified;
+    }
+}
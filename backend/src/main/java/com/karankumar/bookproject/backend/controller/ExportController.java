@@ -0,0 +1,72 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.backend.controller;
+
+import com.karankumar.bookproject.backend.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+    private static final String GZIP_CONTENT_TYPE = "application/gzip";
+
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Streams the logged in user's books to the response as a file download
+     *
+     * @param format JSON (the default) or NDJSON
+     * @param gzip whether to gzip the file
+     */
+    @GetMapping
+    public void exportBooks(
+            @RequestParam(value = "format", defaultValue = "JSON") ExportService.Format format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        String fileName = gzip ? format.getFileName() + ".gz" : format.getFileName();
+        response.setContentType(gzip ? GZIP_CONTENT_TYPE : format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.builder("attachment").filename(fileName).build().toString());
+
+        if (gzip) {
+            GZIPOutputStream gzipOutputStream = new GZIPOutputStream(response.getOutputStream());
+            exportService.exportBooks(gzipOutputStream, format);
+            gzipOutputStream.finish();
+        } else {
+            OutputStream outputStream = response.getOutputStream();
+            exportService.exportBooks(outputStream, format);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.backend.controller;
+
+import com.karankumar.bookproject.backend.dto.ImportJobStatus;
+import com.karankumar.bookproject.backend.service.ImportJob;
+import com.karankumar.bookproject.backend.service.ImportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/imports")
+public class ImportController {
+    private final ImportJobService importJobService;
+
+    private static final String IMPORT_NOT_FOUND_ERROR_MESSAGE = "Could not find import with ID %s";
+
+    @Autowired
+    public ImportController(ImportJobService importJobService) {
+        this.importJobService = importJobService;
+    }
+
+    /**
+     * Queues a Goodreads CSV export to be imported. The returned ID can be used to poll the
+     * progress of the import or to cancel it
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ImportJobStatus submitGoodreadsImport(@RequestParam("file") MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return ImportJobStatus.of(importJobService.submitGoodreadsCsv(inputStream));
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many imports are in progress, please try again later");
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not read the file", e);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ImportJobStatus findById(@PathVariable String id) {
+        return importJobService.findForLoggedInUser(id)
+                               .map(ImportJobStatus::of)
+                               .orElseThrow(() -> notFound(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ImportJobStatus cancel(@PathVariable String id) {
+        ImportJob job = importJobService.cancelForLoggedInUser(id)
+                                        .orElseThrow(() -> notFound(id));
+        return ImportJobStatus.of(job);
+    }
+
+    private ResponseStatusException notFound(String id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND,
+                String.format(IMPORT_NOT_FOUND_ERROR_MESSAGE, id));
+    }
+}
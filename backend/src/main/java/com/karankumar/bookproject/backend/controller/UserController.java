@@ -19,6 +19,7 @@ import com.karankumar.bookproject.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -33,6 +34,7 @@ import org.springframework.web.server.ResponseStatusException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/user")
@@ -65,6 +67,15 @@ public class UserController {
                           );
     }
 
+    /**
+     * Thrown when the password cannot be hashed or checked because too many already are
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE,
+            reason = "Too many passwords are being checked, please try again later")
+    public void passwordHashingRejected() {
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public void register(@RequestBody User user) {
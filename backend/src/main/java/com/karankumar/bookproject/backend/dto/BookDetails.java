@@ -0,0 +1,80 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.karankumar.bookproject.backend.json.LocalDateSerializer;
+import com.karankumar.bookproject.backend.model.BookFormat;
+import com.karankumar.bookproject.backend.model.BookGenre;
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import com.karankumar.bookproject.backend.model.RatingScale;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.With;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Every field of a single book. Like {@link BookSummary}, the single-valued fields are selected
+ * with a JPQL constructor expression (see BookRepository.findDetailsById(Long)). The genres,
+ * tags and publishers are selected separately and added with the {@code with} methods
+ */
+@Value
+@AllArgsConstructor
+public class BookDetails {
+    Long id;
+    String title;
+    String authorName;
+    PredefinedShelf.ShelfName predefinedShelf;
+    String userCreatedShelf;
+    RatingScale rating;
+    Integer numberOfPages;
+    Integer pagesRead;
+    BookFormat bookFormat;
+    Integer seriesPosition;
+    String edition;
+    String bookRecommendedBy;
+    String isbn;
+    Integer yearOfPublication;
+    @JsonSerialize(using = LocalDateSerializer.class)
+    LocalDate dateStartedReading;
+    @JsonSerialize(using = LocalDateSerializer.class)
+    LocalDate dateFinishedReading;
+    String bookReview;
+    @With
+    Set<BookGenre> bookGenre;
+    @With
+    List<String> tags;
+    @With
+    List<String> publishers;
+
+    public BookDetails(Long id, String title, String authorName,
+                       PredefinedShelf.ShelfName predefinedShelf, String userCreatedShelf,
+                       RatingScale rating, Integer numberOfPages, Integer pagesRead,
+                       BookFormat bookFormat, Integer seriesPosition, String edition,
+                       String bookRecommendedBy, String isbn, Integer yearOfPublication,
+                       LocalDate dateStartedReading, LocalDate dateFinishedReading,
+                       String bookReview) {
+        this(id, title, authorName, predefinedShelf, userCreatedShelf, rating, numberOfPages,
+                pagesRead, bookFormat, seriesPosition, edition, bookRecommendedBy, isbn,
+                yearOfPublication, dateStartedReading, dateFinishedReading, bookReview,
+                Set.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.dto;
+
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import com.karankumar.bookproject.backend.model.RatingScale;
+import lombok.Value;
+
+/**
+ * The fields of a book that are shown in a list. This is selected with a JPQL constructor
+ * expression (see BookRepository.findAllSummaries()), so no Book entity is loaded for it
+ */
+@Value
+public class BookSummary {
+    Long id;
+    String title;
+    String authorName;
+    PredefinedShelf.ShelfName predefinedShelf;
+    RatingScale rating;
+    Integer numberOfPages;
+}
@@ -0,0 +1,39 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.backend.dto;
+
+import com.karankumar.bookproject.backend.service.ImportJob;
+import com.karankumar.bookproject.backend.service.ImportProgress;
+import lombok.Value;
+
+@Value
+public class ImportJobStatus {
+    String id;
+    ImportJob.Status status;
+    int rowsParsed;
+    int booksSaved;
+    int rowsRejected;
+    double rowsPerSecond;
+
+    public static ImportJobStatus of(ImportJob job) {
+        ImportProgress progress = job.getProgress();
+        return new ImportJobStatus(job.getId(), job.getStatus(), progress.getRowsParsed(),
+                progress.getBooksSaved(), progress.getRowsRejected(), job.getRowsPerSecond());
+    }
+}
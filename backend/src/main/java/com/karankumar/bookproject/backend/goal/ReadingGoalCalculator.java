@@ -55,7 +55,8 @@ public final class ReadingGoalCalculator {
     }
 
     /**
-     * Find how many books or pages have been read this year
+     * Find how many books or pages have been read this year. This goes through every book in the
+     * read shelf: ReadingCounterService gives the same figure from a single counter
      * @param goalType either books or pages
      * @param readShelf the predefined read shelf
      * @return the number of books or pages read this year
@@ -0,0 +1,109 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the SQL statements that Hibernate prepares on the current thread between {@link #start()}
+ * and {@link #close()}. Statements that only differ by their literals or by the length of an IN
+ * list have the same shape, so a shape that is run many times is likely an N+1 query: a lazy
+ * association being loaded once per entity.
+ *
+ * Counts can be nested. A statement is counted by every open count on the thread.
+ * The statements are found by {@link QueryCountingStatementInspector}
+ */
+public final class QueryCount implements AutoCloseable {
+    private static final ThreadLocal<QueryCount> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private final QueryCount parent;
+    private final Map<String, Integer> statementsByShape = new LinkedHashMap<>();
+    private int statements;
+
+    private QueryCount(QueryCount parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Starts counting on the current thread. The count must be closed on the same thread
+     */
+    public static QueryCount start() {
+        QueryCount queryCount = new QueryCount(CURRENT.get());
+        CURRENT.set(queryCount);
+        return queryCount;
+    }
+
+    static void record(String sql) {
+        QueryCount current = CURRENT.get();
+        if (current == null) {
+            return;
+        }
+        String shape = shapeOf(sql);
+        for (QueryCount queryCount = current; queryCount != null; queryCount = queryCount.parent) {
+            queryCount.statements++;
+            queryCount.statementsByShape.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("(?)");
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return the shapes that were run at least {@code times} times, with how often they were run
+     */
+    public Map<String, Integer> findRepeatedShapes(int times) {
+        return statementsByShape.entrySet()
+                                .stream()
+                                .filter(entry -> entry.getValue() >= times)
+                                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                                        (a, b) -> a, LinkedHashMap::new));
+    }
+
+    public Map<String, Integer> getStatementsByShape() {
+        return Collections.unmodifiableMap(statementsByShape);
+    }
+
+    /**
+     * Stops counting. An outer count carries on counting
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+}
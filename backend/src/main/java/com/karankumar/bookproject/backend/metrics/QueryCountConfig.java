@@ -0,0 +1,43 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.metrics;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("application.query-count")
+@NoArgsConstructor
+@Getter
+@Setter
+public class QueryCountConfig {
+    /**
+     * The fraction of requests (from 0 to 1) whose SQL statements are counted and logged. 0 turns
+     * the logging off
+     */
+    private double sampleRate = 0;
+    /**
+     * A request that runs more statements than this is logged as a warning
+     */
+    private int maxStatements = 50;
+    /**
+     * A statement shape that is run this many times in one request is logged as a possible N+1
+     */
+    private int repeatedStatementThreshold = 5;
+}
@@ -0,0 +1,75 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counts the SQL statements of a sample of requests (see {@link QueryCountConfig}). A request is
+ * logged at debug level, or as a warning if it ran too many statements or repeated a statement
+ * shape often enough to be an N+1 query
+ */
+@Component
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+    private final QueryCountConfig queryCountConfig;
+
+    public QueryCountFilter(QueryCountConfig queryCountConfig) {
+        this.queryCountConfig = queryCountConfig;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        double sampleRate = queryCountConfig.getSampleRate();
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try (QueryCount queryCount = QueryCount.start()) {
+            filterChain.doFilter(request, response);
+            log(request, queryCount);
+        }
+    }
+
+    private void log(HttpServletRequest request, QueryCount queryCount) {
+        String path = request.getMethod() + " " + request.getRequestURI();
+        int statements = queryCount.getStatements();
+        Map<String, Integer> repeatedShapes =
+                queryCount.findRepeatedShapes(queryCountConfig.getRepeatedStatementThreshold());
+
+        if (statements > queryCountConfig.getMaxStatements()) {
+            LOGGER.warn("{} ran {} SQL statements", path, statements);
+        } else {
+            LOGGER.debug("{} ran {} SQL statements", path, statements);
+        }
+        repeatedShapes.forEach((shape, times) ->
+                LOGGER.warn("Possible N+1 query: {} ran {} times: {}", path, times, shape));
+    }
+}
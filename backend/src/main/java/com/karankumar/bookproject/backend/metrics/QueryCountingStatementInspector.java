@@ -0,0 +1,33 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Passes every SQL statement that Hibernate prepares to the {@link QueryCount} of the current
+ * thread, if there is one. Registered with the
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector property
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+    @Override
+    public String inspect(String sql) {
+        QueryCount.record(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every method of the book and predefined shelf repositories, including the ones inherited
+ * from JpaRepository. Each method gets its own timer, tagged with the repository, the method and
+ * the exception that it threw (if any)
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+    static final String TIMER_NAME = "repository.query";
+
+    private final MeterRegistry meterRegistry;
+
+    public RepositoryMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("this(com.karankumar.bookproject.backend.repository.BookRepository)")
+    public Object timeBookRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("BookRepository", joinPoint);
+    }
+
+    @Around("this(com.karankumar.bookproject.backend.repository.PredefinedShelfRepository)")
+    public Object timePredefinedShelfRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("PredefinedShelfRepository", joinPoint);
+    }
+
+    private Object time(String repository, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(TIMER_NAME,
+                    "repository", repository,
+                    "method", joinPoint.getSignature().getName(),
+                    "exception", exception));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Times the parts of startup that are not a single bean, and keeps the work that has to happen
+ * before the first request eager when the fast-boot profile turns on lazy initialisation
+ */
+@Configuration
+@Slf4j
+public class StartupConfiguration {
+    static final String FLYWAY_PHASE = "flyway";
+
+    /**
+     * Initialising these lazily would only move the migration (and its failures) and the Hibernate
+     * boot into the first request
+     */
+    private static final List<String> EAGER_BEANS = List.of("flywayInitializer", "entityManagerFactory");
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(StartupTimeline startupTimeline,
+                                                           StartupConfig startupConfig) {
+        return flyway -> {
+            long startTime = System.nanoTime();
+            migrateOrValidate(flyway, startupConfig.isFlywayValidateOnly());
+            startupTimeline.recordPhase(FLYWAY_PHASE, Duration.ofNanos(System.nanoTime() - startTime));
+        };
+    }
+
+    private static void migrateOrValidate(Flyway flyway, boolean validateOnly) {
+        if (validateOnly && flyway.info().pending().length == 0) {
+            // fails if the checksum of an applied migration has changed, just like migrate() would
+            flyway.validate();
+            LOGGER.info("No pending migrations, so the schema was only validated");
+        } else {
+            flyway.migrate();
+        }
+    }
+
+    @Bean
+    public static BeanFactoryPostProcessor eagerStartupBeans() {
+        return beanFactory -> EAGER_BEANS.stream()
+                                         .filter(beanFactory::containsBeanDefinition)
+                                         .map(beanFactory::getBeanDefinition)
+                                         .forEach(beanDefinition -> beanDefinition.setLazyInit(false));
+    }
+}
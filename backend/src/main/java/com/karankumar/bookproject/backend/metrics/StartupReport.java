@@ -0,0 +1,86 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Logs the startup timeline once the application is ready to serve requests: the time since the
+ * JVM started, the startup phases, the Hibernate boot and the slowest beans. The same times are
+ * recorded by the "application.startup" timer (tagged by phase), so boot times can be compared
+ * across deploys
+ */
+@Component
+@Slf4j
+public class StartupReport {
+    static final String HIBERNATE_PHASE = "hibernate";
+    static final String READY_PHASE = "ready";
+
+    private static final String ENTITY_MANAGER_FACTORY_BEAN = "entityManagerFactory";
+
+    private final StartupTimeline startupTimeline;
+    private final StartupConfig startupConfig;
+    private final MeterRegistry meterRegistry;
+
+    public StartupReport(StartupTimeline startupTimeline, StartupConfig startupConfig,
+                         MeterRegistry meterRegistry) {
+        this.startupTimeline = startupTimeline;
+        this.startupConfig = startupConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        startupTimeline.stopRecording();
+
+        Map<String, Duration> phaseTimes = new LinkedHashMap<>(startupTimeline.getPhaseTimes());
+        startupTimeline.getBeanTime(ENTITY_MANAGER_FACTORY_BEAN)
+                       .ifPresent(time -> phaseTimes.put(HIBERNATE_PHASE, time));
+        phaseTimes.put(READY_PHASE,
+                Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime()));
+
+        StringBuilder report = new StringBuilder("Startup timeline:");
+        phaseTimes.forEach((phase, time) -> {
+            report.append(String.format("%n  %-40s %6d ms", phase, time.toMillis()));
+            Timer.builder("application.startup")
+                 .tag("phase", phase)
+                 .register(meterRegistry)
+                 .record(time);
+        });
+
+        report.append(String.format("%nSlowest beans (including their dependencies):"));
+        startupTimeline.getBeanTimes()
+                       .entrySet()
+                       .stream()
+                       .sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+                       .limit(startupConfig.getSlowestBeans())
+                       .forEach(bean -> report.append(String.format("%n  %-40s %6d ms",
+                               bean.getKey(), bean.getValue().toMillis())));
+        LOGGER.info(report.toString());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.metrics;
+
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how long each bean took to create and initialise, and how long the named startup phases
+ * (e.g. the Flyway migration) took. A bean's time includes the creation of the beans it depends on
+ * that did not exist yet, so the slowest beans point at the slowest parts of the dependency graph.
+ * Recording stops once the {@link StartupReport} has been logged
+ *
+ * This must not depend on any other bean, as a bean post processor is created before them
+ */
+@Component
+public class StartupTimeline implements InstantiationAwareBeanPostProcessor {
+    private final Map<String, Long> beanStartTimes = new ConcurrentHashMap<>();
+    private final Map<String, Duration> beanTimes = new ConcurrentHashMap<>();
+    private final Map<String, Duration> phaseTimes = Collections.synchronizedMap(new LinkedHashMap<>());
+    private volatile boolean recording = true;
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+        if (recording) {
+            beanStartTimes.putIfAbsent(beanName, System.nanoTime());
+        }
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Long startTime = beanStartTimes.remove(beanName);
+        if (recording && startTime != null) {
+            beanTimes.put(beanName, Duration.ofNanos(System.nanoTime() - startTime));
+        }
+        return bean;
+    }
+
+    public void recordPhase(String phase, Duration duration) {
+        phaseTimes.put(phase, duration);
+    }
+
+    /**
+     * @return the time it took to create the given bean, or an empty Optional if it was not created
+     * while recording
+     */
+    public Optional<Duration> getBeanTime(String beanName) {
+        return Optional.ofNullable(beanTimes.get(beanName));
+    }
+
+    public Map<String, Duration> getBeanTimes() {
+        return Collections.unmodifiableMap(beanTimes);
+    }
+
+    public Map<String, Duration> getPhaseTimes() {
+        synchronized (phaseTimes) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(phaseTimes));
+        }
+    }
+
+    void stopRecording() {
+        recording = false;
+        beanStartTimes.clear();
+    }
+}
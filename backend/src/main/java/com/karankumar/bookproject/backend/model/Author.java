@@ -23,6 +23,8 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Entity;
 import javax.persistence.NamedEntityGraph;
@@ -32,6 +34,7 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.OneToMany;
 import javax.persistence.FetchType;
 import javax.persistence.GenerationType;
+import javax.persistence.SequenceGenerator;
 import javax.validation.constraints.NotBlank;
 import java.util.HashSet;
 import java.util.Set;
@@ -45,9 +48,11 @@ import java.util.stream.Collectors;
 @NamedEntityGraph(name = "Author.books",
         attributeNodes = @NamedAttributeNode("books")
 )
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Author {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "authorgenerator")
+    @SequenceGenerator(name = "authorgenerator", sequenceName = "author_sequence")
     @Setter(AccessLevel.NONE)
     private Long id;
 
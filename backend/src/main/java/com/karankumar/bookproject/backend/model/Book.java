@@ -28,6 +28,7 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.validator.constraints.ISBN;
 
 import javax.persistence.CascadeType;
@@ -44,6 +45,7 @@ import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -62,9 +64,15 @@ import java.util.stream.Stream;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Book {
     public static final int MAX_PAGES = 23_000;
+    /**
+     * The maximum number of books whose collections are initialised with a single IN query
+     */
+    public static final int BATCH_SIZE = 500;
 
+    // A pooled sequence (rather than IDENTITY) lets Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookgenerator")
+    @SequenceGenerator(name = "bookgenerator", sequenceName = "book_sequence")
     @Setter(AccessLevel.NONE)
     @EqualsAndHashCode.Include
     private Long id;
@@ -86,6 +94,7 @@ public class Book {
             joinColumns = @JoinColumn(name = "book_id")
     )
     @Column(name = "genre")
+    @BatchSize(size = BATCH_SIZE)
     private Set<BookGenre> bookGenre;
 
     private BookFormat bookFormat;
@@ -23,6 +23,8 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -47,6 +49,7 @@ import java.util.Set;
 @NamedEntityGraph(name = "PredefinedShelf.books",
         attributeNodes = @NamedAttributeNode("books")
 )
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class PredefinedShelf extends Shelf {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +24,8 @@ import lombok.NoArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Data;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -55,6 +57,7 @@ import java.util.Set;
 @NamedEntityGraph(name = "Publisher.books",
         attributeNodes = @NamedAttributeNode("books")
 )
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Publisher {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
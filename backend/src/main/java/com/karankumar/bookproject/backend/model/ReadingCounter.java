@@ -0,0 +1,65 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * How many books (and pages) a user finished reading in a year. Only books in the user's read shelf
+ * that have a finish date are counted. This is kept up to date as books are saved and deleted, so
+ * that the progress towards a reading goal does not need to go through the read shelf
+ */
+@Entity
+@Table(name = "reading_counter",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "reading_year"}))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class ReadingCounter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "reading_year", nullable = false)
+    private int year;
+
+    private int booksFinished;
+
+    private int pagesFinished;
+
+    public ReadingCounter(Long userId, int year, int booksFinished, int pagesFinished) {
+        this.userId = userId;
+        this.year = year;
+        this.booksFinished = booksFinished;
+        this.pagesFinished = pagesFinished;
+    }
+}
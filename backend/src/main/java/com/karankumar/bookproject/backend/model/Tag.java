@@ -23,6 +23,8 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -47,6 +49,7 @@ import java.util.Set;
 @NamedEntityGraph(name = "Tag.books",
         attributeNodes = @NamedAttributeNode("books")
 )
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Tag {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,7 +21,10 @@ package com.karankumar.bookproject.backend.repository;
 import com.karankumar.bookproject.backend.model.Author;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,4 +41,7 @@ public interface AuthorRepository extends JpaRepository<Author, Long> {
 
     @EntityGraph(value = "Author.books")
     void deleteAll();
+
+    @Query("SELECT a FROM Author a WHERE LOWER(TRIM(a.fullName)) IN :fullNames")
+    List<Author> findByLowerCaseFullNameIn(@Param("fullNames") Collection<String> fullNames);
 }
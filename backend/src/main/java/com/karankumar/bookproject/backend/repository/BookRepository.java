@@ -17,41 +17,459 @@
 
 package com.karankumar.bookproject.backend.repository;
 
+import com.karankumar.bookproject.backend.dto.BookDetails;
+import com.karankumar.bookproject.backend.dto.BookSummary;
 import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.BookGenre;
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import com.karankumar.bookproject.backend.model.PredefinedShelf.ShelfName;
+import com.karankumar.bookproject.backend.model.RatingScale;
+import com.karankumar.bookproject.backend.model.UserCreatedShelf;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FLUSH_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
+    /**
+     * Escapes a LIKE wildcard in the prefix queries. A backslash is not used since MySQL also
+     * treats it as an escape in string literals
+     */
+    String LIKE_ESCAPE = "!";
+
+    /**
+     * Matches an author {@code a} with a name that starts with the {@code prefix}: either the full
+     * name does, or a word after a space in it does
+     */
+    String AUTHOR_NAME_STARTS_WITH_PREFIX =
+            "(a.fullName LIKE CONCAT(:prefix, '%') ESCAPE '" + LIKE_ESCAPE + "' " +
+                "OR a.fullName LIKE CONCAT('% ', :prefix, '%') ESCAPE '" + LIKE_ESCAPE + "') ";
+
+    /**
+     * Only fetches the to-one associations. The tags and publishers should be fetched afterwards
+     * with {@link #fetchTags(Collection)} and {@link #fetchPublishers(Collection)} to avoid a
+     * Cartesian product of tags and publishers for each book
+     */
     @Query("SELECT b " +
             "FROM Book b " +
             "INNER JOIN FETCH b.author " +
-            "INNER JOIN FETCH b.predefinedShelf " +
-            "INNER JOIN FETCH b.tags " +
-            "INNER JOIN FETCH b.publishers" )
+            "INNER JOIN FETCH b.predefinedShelf")
     List<Book> findAllBooks();
 
+    /**
+     * Only fetches the to-one associations. See {@link #findAllBooks()}
+     */
     @Query("SELECT b " +
             "FROM Book b " +
             "INNER JOIN FETCH b.author " +
             "INNER JOIN FETCH b.predefinedShelf " +
-            "INNER JOIN FETCH b.tags " +
-            "INNER JOIN FETCH b.publishers " +
             "WHERE b.id = :id" )
     Optional<Book> findBookById(@Param("id") Long id);
 
-    List<Book> findByTitleContainingIgnoreCase(String title);
+    /**
+     * Initialises the tags of books that are already in the persistence context. This must be
+     * called in the same transaction that loaded the books
+     */
+    @Query("SELECT DISTINCT b " +
+            "FROM Book b " +
+            "LEFT JOIN FETCH b.tags " +
+            "WHERE b IN :books")
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Book> fetchTags(@Param("books") Collection<Book> books);
+
+    /**
+     * Initialises the publishers of books that are already in the persistence context. This must
+     * be called in the same transaction that loaded the books
+     */
+    @Query("SELECT DISTINCT b " +
+            "FROM Book b " +
+            "LEFT JOIN FETCH b.publishers " +
+            "WHERE b IN :books")
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Book> fetchPublishers(@Param("books") Collection<Book> books);
+
+    /**
+     * Keyset pagination: selects the summaries of the books whose ID is greater than
+     * {@code lastSeenId} in ascending ID order. Only the page size of the {@code pageable} should
+     * be used (i.e. always request page 0) so that the database seeks straight to
+     * {@code lastSeenId} via the primary key rather than scanning and discarding an OFFSET.
+     * See {@link #findAllSummaries()}
+     */
+    @Query("SELECT new com.karankumar.bookproject.backend.dto.BookSummary(" +
+                "b.id, b.title, a.fullName, s.predefinedShelfName, b.rating, b.numberOfPages) " +
+            "FROM Book b " +
+            "INNER JOIN b.author a " +
+            "INNER JOIN b.predefinedShelf s " +
+            "WHERE b.id > :lastSeenId " +
+            "ORDER BY b.id")
+    List<BookSummary> findSummariesAfterId(@Param("lastSeenId") Long lastSeenId, Pageable pageable);
+
+    /**
+     * Streams the ID of every book from a forward-only database cursor, so that the IDs are read
+     * as they are consumed rather than all at once. The stream must be consumed and closed inside
+     * a transaction
+     */
+    @Query("SELECT b.id FROM Book b ORDER BY b.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Book.BATCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Long> streamAllIds();
 
+    /**
+     * Like {@link #streamAllIds()}, but only streams the IDs of the given user's books
+     */
+    @Query("SELECT b.id " +
+            "FROM Book b " +
+            "INNER JOIN b.predefinedShelf s " +
+            "WHERE s.user.id = :userId " +
+            "ORDER BY b.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Book.BATCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Long> streamIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Loads the given books as read-only entities, with their to-one associations. See
+     * {@link #findAllBooks()}
+     */
     @Query("SELECT b " +
             "FROM Book b " +
-            "INNER JOIN FETCH b.author AS a " +
+            "INNER JOIN FETCH b.author " +
             "INNER JOIN FETCH b.predefinedShelf " +
-            "INNER JOIN FETCH b.tags " +
-            "INNER JOIN FETCH b.publishers " +
-            "WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :titleOrAuthor, '%')) OR " +
-                "LOWER(a.fullName) LIKE LOWER(CONCAT('%', :titleOrAuthor, '%'))")
-    List<Book> findByTitleOrAuthor(@Param("titleOrAuthor") String titleOrAuthor);
+            "LEFT JOIN FETCH b.userCreatedShelf " +
+            "WHERE b.id IN :ids " +
+            "ORDER BY b.id")
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    List<Book> findReadOnlyBooksByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Counts the books in a shelf for each combination of genre and rating. A book with several
+     * genres is counted once for each of its genres
+     */
+    @Query("SELECT g AS genre, b.rating AS rating, COUNT(b) AS books " +
+            "FROM Book b " +
+            "INNER JOIN b.bookGenre g " +
+            "WHERE b.predefinedShelf = :shelf " +
+            "GROUP BY g, b.rating")
+    List<GenreRatingCount> countByGenreAndRating(@Param("shelf") PredefinedShelf shelf);
+
+    /**
+     * Counts the rated books in a shelf for each rating. Ratings are stored as ordinals, so they
+     * are grouped here and turned into values in Java rather than averaged by the database
+     */
+    @Query("SELECT b.rating AS rating, COUNT(b) AS books " +
+            "FROM Book b " +
+            "WHERE b.predefinedShelf = :shelf AND b.rating IS NOT NULL " +
+            "GROUP BY b.rating")
+    List<RatingCount> countByRating(@Param("shelf") PredefinedShelf shelf);
+
+    /**
+     * As {@link #countByRating(PredefinedShelf)}, but only for the books that were started between
+     * the given dates (inclusive)
+     */
+    @Query("SELECT b.rating AS rating, COUNT(b) AS books " +
+            "FROM Book b " +
+            "WHERE b.predefinedShelf = :shelf AND b.rating IS NOT NULL " +
+                "AND b.dateStartedReading BETWEEN :from AND :to " +
+            "GROUP BY b.rating")
+    List<RatingCount> countByRatingStartedBetween(@Param("shelf") PredefinedShelf shelf,
+                                                  @Param("from") LocalDate from,
+                                                  @Param("to") LocalDate to);
+
+    @Query("SELECT COUNT(b.numberOfPages) AS books, COALESCE(SUM(b.numberOfPages), 0) AS pages " +
+            "FROM Book b " +
+            "WHERE b.predefinedShelf = :shelf")
+    PageTotals sumPages(@Param("shelf") PredefinedShelf shelf);
+
+    /**
+     * The books in a shelf that have a page count, in the order of the {@code pageable}. Used with
+     * a page size of 1 to pick a single book without loading the rest of the shelf
+     */
+    @Query("SELECT b " +
+            "FROM Book b " +
+            "INNER JOIN FETCH b.author " +
+            "WHERE b.predefinedShelf = :shelf AND b.numberOfPages IS NOT NULL")
+    List<Book> findWithPages(@Param("shelf") PredefinedShelf shelf, Pageable pageable);
+
+    /**
+     * The rated books in a shelf, in the order of the {@code pageable}. See
+     * {@link #findWithPages(PredefinedShelf, Pageable)}
+     */
+    @Query("SELECT b " +
+            "FROM Book b " +
+            "INNER JOIN FETCH b.author " +
+            "WHERE b.predefinedShelf = :shelf AND b.rating IS NOT NULL")
+    List<Book> findRated(@Param("shelf") PredefinedShelf shelf, Pageable pageable);
+
+    /**
+     * The rated books in a shelf that were started between the given dates (inclusive), in the
+     * order of the {@code pageable}. See {@link #findWithPages(PredefinedShelf, Pageable)}
+     */
+    @Query("SELECT b " +
+            "FROM Book b " +
+            "INNER JOIN FETCH b.author " +
+            "WHERE b.predefinedShelf = :shelf AND b.rating IS NOT NULL " +
+                "AND b.dateStartedReading BETWEEN :from AND :to")
+    List<Book> findRatedStartedBetween(@Param("shelf") PredefinedShelf shelf,
+                                       @Param("from") LocalDate from,
+                                       @Param("to") LocalDate to,
+                                       Pageable pageable);
+
+    /**
+     * Finds the given books that are on a shelf with the given name and have a finish date, as they
+     * are in the database. Pending changes to the books are deliberately not flushed first, so that
+     * this can be used to find what a book counted towards before it is saved
+     */
+    @Query("SELECT b.id AS bookId, s.user.id AS userId, " +
+                "b.dateFinishedReading AS dateFinishedReading, b.numberOfPages AS numberOfPages " +
+            "FROM Book b " +
+            "INNER JOIN b.predefinedShelf s " +
+            "WHERE b.id IN :ids AND s.predefinedShelfName = :shelfName AND s.user IS NOT NULL " +
+                "AND b.dateFinishedReading IS NOT NULL")
+    @QueryHints(@QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT"))
+    List<FinishedBook> findFinishedByIdIn(@Param("ids") Collection<Long> ids,
+                                          @Param("shelfName") ShelfName shelfName);
+
+    /**
+     * Counts the books (and their pages) on shelves with the given name for each user and year
+     * that they were finished in
+     */
+    @Query("SELECT s.user.id AS userId, YEAR(b.dateFinishedReading) AS finishedYear, " +
+                "COUNT(b) AS books, COALESCE(SUM(b.numberOfPages), 0) AS pages " +
+            "FROM Book b " +
+            "INNER JOIN b.predefinedShelf s " +
+            "WHERE s.predefinedShelfName = :shelfName AND s.user IS NOT NULL " +
+                "AND b.dateFinishedReading IS NOT NULL " +
+            "GROUP BY s.user.id, YEAR(b.dateFinishedReading)")
+    List<FinishedCount> countFinishedByUserAndYear(@Param("shelfName") ShelfName shelfName);
+
+    /**
+     * The title and author of each of a user's books. Along with
+     * {@link #findTagNamesByUserId(Long)} and {@link #findPublisherNamesByUserId(Long)}, this gives
+     * the names to suggest to a user without loading their books
+     */
+    @Query("SELECT b.id AS bookId, b.title AS title, a.fullName AS authorName " +
+            "FROM Book b " +
+            "INNER JOIN b.author a " +
+            "INNER JOIN b.predefinedShelf s " +
+            "WHERE s.user.id = :userId")
+    List<TitleAndAuthor> findTitlesAndAuthorsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT b.id AS bookId, t.name AS name " +
+            "FROM Book b " +
+            "INNER JOIN b.tags t " +
+            "INNER JOIN b.predefinedShelf s " +
+            "WHERE s.user.id = :userId")
+    List<BookAndName> findTagNamesByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT b.id AS bookId, p.name AS name " +
+            "FROM Book b " +
+            "INNER JOIN b.publishers p " +
+            "INNER JOIN b.predefinedShelf s " +
+            "WHERE s.user.id = :userId")
+    List<BookAndName> findPublisherNamesByUserId(@Param("userId") Long userId);
+
+    /**
+     * The IDs of the user's books whose title starts with the prefix, along with the titles they
+     * are ordered by. The prefix must have its LIKE wildcards escaped with {@link #LIKE_ESCAPE}.
+     *
+     * A prefix (rather than a contains) match can seek through the index on the title, and as the
+     * books are in the order of that index, the database stops reading it once it has found as many
+     * books as the {@code pageable} asks for, rather than sorting every match first. Only the page
+     * size of the {@code pageable} should be used, as in
+     * {@link #findSummariesAfterId(Long, Pageable)}
+     */
+    @Query("SELECT b.id AS bookId, b.title AS title " +
+            "FROM Book b " +
+            "INNER JOIN b.predefinedShelf s " +
+            "WHERE s.user.id = :userId " +
+                "AND b.title LIKE CONCAT(:prefix, '%') ESCAPE '" + LIKE_ESCAPE + "' " +
+            "ORDER BY b.title, b.id")
+    List<BookAndTitle> findIdsByUserIdAndTitleStartingWith(@Param("userId") Long userId,
+                                                           @Param("prefix") String prefix,
+                                                           Pageable pageable);
+
+    /**
+     * The IDs of the user's books by an author that has a name (e.g. a first name or a surname)
+     * starting with the prefix, ordered by title. Only the first name could be found through the
+     * index on the author's full name, so this reads every author. The books of the matching
+     * authors are then found through the author foreign key and sorted, so the cost depends on the
+     * number of authors and on the user's books by the matching authors, rather than on the number
+     * of books.
+     * See {@link #findIdsByUserIdAndTitleStartingWith(Long, String, Pageable)}
+     */
+    @Query("SELECT b.id AS bookId, b.title AS title " +
+            "FROM Book b " +
+            "INNER JOIN b.author a " +
+            "INNER JOIN b.predefinedShelf s " +
+            "WHERE s.user.id = :userId " +
+                "AND " + AUTHOR_NAME_STARTS_WITH_PREFIX +
+            "ORDER BY b.title, b.id")
+    List<BookAndTitle> findIdsByUserIdAndAuthorStartingWith(@Param("userId") Long userId,
+                                                            @Param("prefix") String prefix,
+                                                            Pageable pageable);
+
+    /**
+     * As {@link #findIdsByUserIdAndTitleStartingWith(Long, String, Pageable)}, but only for the
+     * books on a predefined shelf. This is read in order from the index on the shelf and the title
+     */
+    @Query("SELECT b.id AS bookId, b.title AS title " +
+            "FROM Book b " +
+            "WHERE b.predefinedShelf = :shelf " +
+                "AND b.title LIKE CONCAT(:prefix, '%') ESCAPE '" + LIKE_ESCAPE + "' " +
+            "ORDER BY b.title, b.id")
+    List<BookAndTitle> findIdsByPredefinedShelfAndTitleStartingWith(
+            @Param("shelf") PredefinedShelf shelf, @Param("prefix") String prefix,
+            Pageable pageable);
+
+    /**
+     * As {@link #findIdsByUserIdAndAuthorStartingWith(Long, String, Pageable)}, but only for the
+     * books on a predefined shelf
+     */
+    @Query("SELECT b.id AS bookId, b.title AS title " +
+            "FROM Book b " +
+            "INNER JOIN b.author a " +
+            "WHERE b.predefinedShelf = :shelf " +
+                "AND " + AUTHOR_NAME_STARTS_WITH_PREFIX +
+            "ORDER BY b.title, b.id")
+    List<BookAndTitle> findIdsByPredefinedShelfAndAuthorStartingWith(
+            @Param("shelf") PredefinedShelf shelf, @Param("prefix") String prefix,
+            Pageable pageable);
+
+    /**
+     * As {@link #findIdsByPredefinedShelfAndTitleStartingWith(PredefinedShelf, String, Pageable)},
+     * but for the books on a user created shelf
+     */
+    @Query("SELECT b.id AS bookId, b.title AS title " +
+            "FROM Book b " +
+            "WHERE b.userCreatedShelf = :shelf " +
+                "AND b.title LIKE CONCAT(:prefix, '%') ESCAPE '" + LIKE_ESCAPE + "' " +
+            "ORDER BY b.title, b.id")
+    List<BookAndTitle> findIdsByUserCreatedShelfAndTitleStartingWith(
+            @Param("shelf") UserCreatedShelf shelf, @Param("prefix") String prefix,
+            Pageable pageable);
+
+    @Query("SELECT b.id AS bookId, b.title AS title " +
+            "FROM Book b " +
+            "INNER JOIN b.author a " +
+            "WHERE b.userCreatedShelf = :shelf " +
+                "AND " + AUTHOR_NAME_STARTS_WITH_PREFIX +
+            "ORDER BY b.title, b.id")
+    List<BookAndTitle> findIdsByUserCreatedShelfAndAuthorStartingWith(
+            @Param("shelf") UserCreatedShelf shelf, @Param("prefix") String prefix,
+            Pageable pageable);
+
+    /**
+     * Selects the summary of every book straight into DTOs, so no Book entities are loaded into
+     * (or dirty checked by) the persistence context
+     */
+    @Query("SELECT new com.karankumar.bookproject.backend.dto.BookSummary(" +
+                "b.id, b.title, a.fullName, s.predefinedShelfName, b.rating, b.numberOfPages) " +
+            "FROM Book b " +
+            "INNER JOIN b.author a " +
+            "INNER JOIN b.predefinedShelf s " +
+            "ORDER BY b.id")
+    List<BookSummary> findAllSummaries();
+
+    /**
+     * The single-valued fields of a book. See {@link #findAllSummaries()}
+     */
+    @Query("SELECT new com.karankumar.bookproject.backend.dto.BookDetails(" +
+                "b.id, b.title, a.fullName, s.predefinedShelfName, u.shelfName, b.rating, " +
+                "b.numberOfPages, b.pagesRead, b.bookFormat, b.seriesPosition, b.edition, " +
+                "b.bookRecommendedBy, b.isbn, b.yearOfPublication, b.dateStartedReading, " +
+                "b.dateFinishedReading, b.bookReview) " +
+            "FROM Book b " +
+            "INNER JOIN b.author a " +
+            "INNER JOIN b.predefinedShelf s " +
+            "LEFT JOIN b.userCreatedShelf u " +
+            "WHERE b.id = :id")
+    Optional<BookDetails> findDetailsById(@Param("id") Long id);
+
+    @Query("SELECT g FROM Book b INNER JOIN b.bookGenre g WHERE b.id = :id")
+    Set<BookGenre> findGenresById(@Param("id") Long id);
+
+    @Query("SELECT t.name FROM Book b INNER JOIN b.tags t WHERE b.id = :id ORDER BY t.name")
+    List<String> findTagNamesById(@Param("id") Long id);
+
+    @Query("SELECT p.name FROM Book b INNER JOIN b.publishers p WHERE b.id = :id ORDER BY p.name")
+    List<String> findPublisherNamesById(@Param("id") Long id);
+
+    List<Book> findByTitleContainingIgnoreCase(String title);
+
+    interface GenreRatingCount {
+        BookGenre getGenre();
+
+        RatingScale getRating();
+
+        long getBooks();
+    }
+
+    interface RatingCount {
+        RatingScale getRating();
+
+        long getBooks();
+    }
+
+    interface PageTotals {
+        long getBooks();
+
+        long getPages();
+    }
+
+    interface FinishedBook {
+        Long getBookId();
+
+        Long getUserId();
+
+        LocalDate getDateFinishedReading();
+
+        Integer getNumberOfPages();
+    }
+
+    interface FinishedCount {
+        Long getUserId();
+
+        int getFinishedYear();
+
+        long getBooks();
+
+        long getPages();
+    }
+
+    interface TitleAndAuthor {
+        Long getBookId();
+
+        String getTitle();
+
+        String getAuthorName();
+    }
+
+    interface BookAndTitle {
+        Long getBookId();
+
+        String getTitle();
+    }
+
+    interface BookAndName {
+        Long getBookId();
+
+        String getName();
+    }
 }
@@ -23,14 +23,27 @@ import com.karankumar.bookproject.backend.model.account.User;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 public interface PredefinedShelfRepository extends JpaRepository<PredefinedShelf, Long> {
     @EntityGraph(value = "PredefinedShelf.books")
     List<PredefinedShelf> findAllByUser(User user);
 
+    /**
+     * Cacheable when the second-level cache is enabled (see application-cache.properties). A user's
+     * predefined shelves are created once and never renamed
+     */
+    @Query("SELECT p FROM PredefinedShelf p WHERE p.user = :user")
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<PredefinedShelf> findAllByUserWithoutBooks(@Param("user") User user);
+
     @EntityGraph(value = "PredefinedShelf.books")
     Optional<PredefinedShelf> findByPredefinedShelfNameAndUser(PredefinedShelf.ShelfName shelfName,
     		User user);
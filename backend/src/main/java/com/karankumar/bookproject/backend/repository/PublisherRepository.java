@@ -20,12 +20,21 @@ package com.karankumar.bookproject.backend.repository;
 import com.karankumar.bookproject.backend.model.Publisher;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
 
 public interface PublisherRepository extends JpaRepository<Publisher, Long> {
+    /**
+     * Cacheable when the second-level cache is enabled (see application-cache.properties)
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Optional<Publisher> findByName(String name);
+
     @EntityGraph(value = "Publisher.books")
     Optional<Publisher> findById(Long id);
 
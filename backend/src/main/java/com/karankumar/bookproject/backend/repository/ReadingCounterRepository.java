@@ -0,0 +1,44 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.repository;
+
+import com.karankumar.bookproject.backend.model.ReadingCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ReadingCounterRepository extends JpaRepository<ReadingCounter, Long> {
+    Optional<ReadingCounter> findByUserIdAndYear(Long userId, int year);
+
+    /**
+     * Adds to (or, with negative values, subtracts from) a counter in the database, without loading
+     * it first
+     * @return the number of counters that were updated. This is 0 if the user has no counter for the
+     * year yet
+     */
+    @Modifying
+    @Query("UPDATE ReadingCounter c " +
+            "SET c.booksFinished = c.booksFinished + :books, " +
+                "c.pagesFinished = c.pagesFinished + :pages " +
+            "WHERE c.userId = :userId AND c.year = :year")
+    int increment(@Param("userId") Long userId, @Param("year") int year,
+                  @Param("books") int books, @Param("pages") int pages);
+}
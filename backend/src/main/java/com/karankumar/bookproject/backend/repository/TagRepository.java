@@ -20,17 +20,25 @@ package com.karankumar.bookproject.backend.repository;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.karankumar.bookproject.backend.model.Tag;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long> {
+    /**
+     * Cacheable when the second-level cache is enabled (see application-cache.properties)
+     */
     @Query("SELECT t FROM Tag t WHERE LOWER(t.name) = :name")
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Tag> findByName(@Param("name") String tagName);
 
     @EntityGraph(value = "Tag.books")
@@ -19,9 +19,15 @@ package com.karankumar.bookproject.backend.repository;
 
 import com.karankumar.bookproject.backend.model.account.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    @Query("SELECT u FROM User u " +
+            "WHERE NOT EXISTS (SELECT p FROM PredefinedShelf p WHERE p.user = u)")
+    List<User> findAllWithoutPredefinedShelves();
 }
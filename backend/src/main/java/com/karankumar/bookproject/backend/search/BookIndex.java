@@ -0,0 +1,224 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.search;
+
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.Publisher;
+import com.karankumar.bookproject.backend.model.Tag;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory full-text index of every user's books, with a separate {@link InvertedIndex} for
+ * each user. It can be written to and read back from a file, so that it does not have to be
+ * rebuilt from the database every time the application starts.
+ *
+ * Searches can run at the same time as each other, but not at the same time as a change.
+ */
+public final class BookIndex {
+    // Terms in the title count for the most, and terms in the review for the least
+    static final float TITLE_WEIGHT = 3.0f;
+    static final float AUTHOR_WEIGHT = 2.0f;
+    static final float TAG_WEIGHT = 1.5f;
+    static final float PUBLISHER_WEIGHT = 1.0f;
+    static final float REVIEW_WEIGHT = 0.5f;
+
+    // change this whenever the file format or the term weights change, so that old files are
+    // rebuilt rather than read
+    private static final int FILE_FORMAT_VERSION = 1;
+
+    private final Map<Long, InvertedIndex> indexesByUser = new HashMap<>();
+    private final Map<Long, Long> userIdsByBook = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @return the weight of each term in the book's title, author, tags, publishers and review.
+     * The tags and publishers must be initialised
+     */
+    public static Map<String, Float> termWeights(Book book) {
+        Map<String, Float> termWeights = new HashMap<>();
+        addTerms(termWeights, book.getTitle(), TITLE_WEIGHT);
+        if (book.getAuthor() != null) {
+            addTerms(termWeights, book.getAuthor().getFullName(), AUTHOR_WEIGHT);
+        }
+        if (book.getTags() != null) {
+            for (Tag tag : book.getTags()) {
+                addTerms(termWeights, tag.getName(), TAG_WEIGHT);
+            }
+        }
+        if (book.getPublishers() != null) {
+            for (Publisher publisher : book.getPublishers()) {
+                addTerms(termWeights, publisher.getName(), PUBLISHER_WEIGHT);
+            }
+        }
+        addTerms(termWeights, book.getBookReview(), REVIEW_WEIGHT);
+        return termWeights;
+    }
+
+    private static void addTerms(Map<String, Float> termWeights, String text, float weight) {
+        TextAnalyzer.tokenize(text).forEach(term -> termWeights.merge(term, weight, Float::sum));
+    }
+
+    /**
+     * Adds a book to its user's index, replacing it if it is already indexed
+     */
+    public void put(long bookId, long userId, Map<String, Float> termWeights) {
+        lock.writeLock().lock();
+        try {
+            removeBook(bookId);
+            indexesByUser.computeIfAbsent(userId, id -> new InvertedIndex())
+                         .put(bookId, termWeights);
+            userIdsByBook.put(bookId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeBook(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeBook(long bookId) {
+        Long userId = userIdsByBook.remove(bookId);
+        if (userId == null) {
+            return;
+        }
+        InvertedIndex index = indexesByUser.get(userId);
+        index.remove(bookId);
+        if (index.isEmpty()) {
+            indexesByUser.remove(userId);
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            indexesByUser.clear();
+            userIdsByBook.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of books in the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return userIdsByBook.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the given user's books
+     * @return the IDs of at most {@code limit} books that match every word of the query, the most
+     * relevant first
+     */
+    public List<Long> search(long userId, String query, int limit) {
+        List<String> queryTerms = TextAnalyzer.tokenize(query);
+        lock.readLock().lock();
+        try {
+            InvertedIndex index = indexesByUser.get(userId);
+            return (index == null || queryTerms.isEmpty()) ? Collections.emptyList() :
+                    index.search(queryTerms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the index to a temporary file first, and then moves it over the given file, so that
+     * the file is never left half written
+     */
+    public void writeTo(Path file) throws IOException {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(FILE_FORMAT_VERSION);
+            output.writeInt(indexesByUser.size());
+            for (Map.Entry<Long, InvertedIndex> userIndex : indexesByUser.entrySet()) {
+                output.writeLong(userIndex.getKey());
+                Map<Long, Map<String, Float>> documents = userIndex.getValue().getDocuments();
+                output.writeInt(documents.size());
+                for (Map.Entry<Long, Map<String, Float>> document : documents.entrySet()) {
+                    output.writeLong(document.getKey());
+                    output.writeInt(document.getValue().size());
+                    for (Map.Entry<String, Float> termWeight : document.getValue().entrySet()) {
+                        output.writeUTF(termWeight.getKey());
+                        output.writeFloat(termWeight.getValue());
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temporaryFile, file,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @throws IOException if the file cannot be read or was written in an older format
+     */
+    public static BookIndex readFrom(Path file) throws IOException {
+        BookIndex bookIndex = new BookIndex();
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = input.readInt();
+            if (version != FILE_FORMAT_VERSION) {
+                throw new IOException("Unsupported search index version " + version);
+            }
+            int users = input.readInt();
+            for (int i = 0; i < users; i++) {
+                long userId = input.readLong();
+                int documents = input.readInt();
+                for (int j = 0; j < documents; j++) {
+                    long bookId = input.readLong();
+                    int terms = input.readInt();
+                    Map<String, Float> termWeights = new HashMap<>(terms * 2);
+                    for (int k = 0; k < terms; k++) {
+                        termWeights.put(input.readUTF(), input.readFloat());
+                    }
+                    bookIndex.put(bookId, userId, termWeights);
+                }
+            }
+        }
+        return bookIndex;
+    }
+}
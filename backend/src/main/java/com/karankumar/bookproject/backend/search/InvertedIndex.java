@@ -0,0 +1,144 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * An inverted index over one user's books. This is not thread-safe: see {@link BookIndex}
+ */
+final class InvertedIndex {
+    /**
+     * A query term that is only a prefix of an indexed term (e.g. "tolk" for "tolkien") counts for
+     * less than an exact match
+     */
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+    /**
+     * Bounds the work done for a short prefix that matches a lot of terms
+     */
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    /**
+     * How quickly repeating a term stops making a book more relevant (as in BM25)
+     */
+    private static final float TERM_SATURATION = 1.2f;
+
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    /**
+     * Adds a book, replacing it if it is already indexed
+     * @param termWeights the weight of each term in the book. See BookIndex.termWeights()
+     */
+    void put(long bookId, Map<String, Float> termWeights) {
+        remove(bookId);
+        documents.put(bookId, termWeights);
+        termWeights.forEach((term, weight) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(bookId, weight));
+    }
+
+    void remove(long bookId) {
+        Map<String, Float> termWeights = documents.remove(bookId);
+        if (termWeights == null) {
+            return;
+        }
+        for (String term : termWeights.keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            posting.remove(bookId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return documents.isEmpty();
+    }
+
+    Map<Long, Map<String, Float>> getDocuments() {
+        return Collections.unmodifiableMap(documents);
+    }
+
+    /**
+     * Finds the books that match every query term, either exactly or by prefix. The books are
+     * ranked by the sum of each term's weight in the book, weighted by how rare the term is
+     * @return the IDs of at most {@code limit} books, the most relevant first
+     */
+    List<Long> search(List<String> queryTerms, int limit) {
+        Map<Long, Float> scores = null;
+        for (String term : new LinkedHashSet<>(queryTerms)) {
+            Map<Long, Float> termScores = score(term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((bookId, score) -> score + termScores.get(bookId));
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        if (scores == null) {
+            return Collections.emptyList();
+        }
+        return scores.entrySet()
+                     .stream()
+                     .sorted(Map.Entry.<Long, Float>comparingByValue(Comparator.reverseOrder())
+                                      .thenComparing(Map.Entry.comparingByKey()))
+                     .limit(limit)
+                     .map(Map.Entry::getKey)
+                     .collect(Collectors.toList());
+    }
+
+    private Map<Long, Float> score(String term) {
+        Map<Long, Float> scores = new HashMap<>();
+        addScores(scores, postings.get(term), 1f);
+        List<Map<Long, Float>> prefixMatches = new ArrayList<>();
+        for (Map.Entry<String, Map<Long, Float>> entry : postings.tailMap(term, false).entrySet()) {
+            if (!entry.getKey().startsWith(term) ||
+                    prefixMatches.size() == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            prefixMatches.add(entry.getValue());
+        }
+        prefixMatches.forEach(posting -> addScores(scores, posting, PREFIX_MATCH_FACTOR));
+        return scores;
+    }
+
+    // a book is scored by its best match for the term, so a prefix that matches several of its
+    // words does not outrank an exact match
+    private void addScores(Map<Long, Float> scores, Map<Long, Float> posting, float factor) {
+        if (posting == null) {
+            return;
+        }
+        double inverseDocumentFrequency = Math.log(1 + (double) documents.size() / posting.size());
+        posting.forEach((bookId, weight) -> {
+            float saturatedWeight = weight * (TERM_SATURATION + 1) / (weight + TERM_SATURATION);
+            float score = (float) (factor * inverseDocumentFrequency * saturatedWeight);
+            scores.merge(bookId, score, Math::max);
+        });
+    }
+}
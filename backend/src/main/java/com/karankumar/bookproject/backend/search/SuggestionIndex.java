@@ -0,0 +1,241 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The suggestions for one user, found by the prefix of any of their words. For example, "Left
+ * Hand of Darkness" is suggested for "left", "hand of" and "dark".
+ *
+ * Each suggestion is stored under a key for every word that it has, which is the rest of the
+ * suggestion from that word onwards. The keys are kept in a sorted map, so the suggestions for a
+ * prefix are the ones in the range of keys that start with it. That range is only large for very
+ * short prefixes, so the best suggestions for every one- and two-character prefix are kept up to
+ * date as suggestions are added and removed, rather than found on each lookup.
+ *
+ * This is not thread-safe.
+ */
+public final class SuggestionIndex {
+    /**
+     * Longer keys are cut short: a prefix this long already picks out very few suggestions
+     */
+    static final int MAX_KEY_LENGTH = 32;
+    private static final int PRECOMPUTED_PREFIX_LENGTH = 2;
+
+    // the suggestions that the most books share come first
+    private static final Comparator<Entry> RANKING =
+            Comparator.comparingInt((Entry entry) -> entry.references)
+                      .reversed()
+                      .thenComparing(entry -> entry.suggestion.getText(),
+                              String.CASE_INSENSITIVE_ORDER)
+                      .thenComparing(entry -> entry.suggestion.getType());
+
+    private final int maxSuggestions;
+    private final int maxEntries;
+    private final Map<Suggestion, Entry> entries = new HashMap<>();
+    private final NavigableMap<String, List<Entry>> entriesByKey = new TreeMap<>();
+    private final Map<String, List<Entry>> bestEntriesByShortPrefix = new HashMap<>();
+
+    /**
+     * @param maxSuggestions the most suggestions that are returned for a prefix
+     * @param maxEntries the most distinct suggestions that are kept, which bounds the memory used
+     */
+    public SuggestionIndex(int maxSuggestions, int maxEntries) {
+        this.maxSuggestions = maxSuggestions;
+        this.maxEntries = maxEntries;
+    }
+
+    private static final class Entry {
+        private final Suggestion suggestion;
+        private final String normalisedText;
+        private final List<String> keys;
+        // the number of books that the suggestion comes from
+        private int references;
+
+        private Entry(Suggestion suggestion, String normalisedText, List<String> keys) {
+            this.suggestion = suggestion;
+            this.normalisedText = normalisedText;
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * Adds a suggestion, or counts it again if another book has already added it
+     * @return the suggestion that is stored, which should be passed to {@link #remove(Suggestion)}.
+     * If the index is full, or the text has no words, nothing is stored and null is returned
+     */
+    public Suggestion add(Suggestion suggestion) {
+        Entry entry = entries.get(suggestion);
+        if (entry == null) {
+            List<String> words = TextAnalyzer.tokenize(suggestion.getText());
+            if (words.isEmpty() || entries.size() >= maxEntries) {
+                return null;
+            }
+            entry = new Entry(suggestion, String.join(" ", words), keysOf(words));
+            entries.put(suggestion, entry);
+            for (String key : entry.keys) {
+                entriesByKey.computeIfAbsent(key, k -> new ArrayList<>(1)).add(entry);
+            }
+        }
+        entry.references++;
+        promote(entry);
+        return entry.suggestion;
+    }
+
+    /**
+     * Undoes one {@link #add(Suggestion)}. The suggestion is only removed once every book that
+     * added it has removed it
+     */
+    public void remove(Suggestion suggestion) {
+        Entry entry = entries.get(suggestion);
+        if (entry == null) {
+            return;
+        }
+        entry.references--;
+        if (entry.references == 0) {
+            entries.remove(suggestion);
+            for (String key : entry.keys) {
+                List<Entry> keyEntries = entriesByKey.get(key);
+                keyEntries.remove(entry);
+                if (keyEntries.isEmpty()) {
+                    entriesByKey.remove(key);
+                }
+            }
+        }
+        demote(entry);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the best suggestions (at most {@code limit}, and never more than maxSuggestions)
+     * that have a word starting with the prefix
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalisedPrefix = String.join(" ", TextAnalyzer.tokenize(prefix));
+        if (normalisedPrefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Stream<Entry> bestEntries;
+        if (normalisedPrefix.length() <= PRECOMPUTED_PREFIX_LENGTH) {
+            bestEntries = bestEntriesByShortPrefix.getOrDefault(normalisedPrefix, List.of())
+                                                  .stream();
+        } else if (normalisedPrefix.length() <= MAX_KEY_LENGTH) {
+            bestEntries = findBestEntries(normalisedPrefix).stream();
+        } else {
+            // the keys were cut short, so check the whole text
+            String wordStart = " " + normalisedPrefix;
+            bestEntries = entriesStartingWith(normalisedPrefix.substring(0, MAX_KEY_LENGTH))
+                    .filter(entry -> (" " + entry.normalisedText).contains(wordStart))
+                    .sorted(RANKING);
+        }
+        return bestEntries.limit(Math.min(limit, maxSuggestions))
+                          .map(entry -> entry.suggestion)
+                          .collect(Collectors.toList());
+    }
+
+    private static List<String> keysOf(List<String> words) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < words.size(); i++) {
+            String key = String.join(" ", words.subList(i, words.size()));
+            keys.add((key.length() > MAX_KEY_LENGTH) ? key.substring(0, MAX_KEY_LENGTH) : key);
+        }
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * An entry only ranks higher when it is added again, so it can only join the best entries of
+     * its short prefixes, which are updated without looking at any other entry
+     */
+    private void promote(Entry entry) {
+        for (String shortPrefix : shortPrefixesOf(entry)) {
+            List<Entry> bestEntries =
+                    bestEntriesByShortPrefix.computeIfAbsent(shortPrefix, p -> new ArrayList<>());
+            if (!bestEntries.contains(entry)) {
+                if (bestEntries.size() < maxSuggestions) {
+                    bestEntries.add(entry);
+                } else if (RANKING.compare(entry, bestEntries.get(bestEntries.size() - 1)) < 0) {
+                    bestEntries.set(bestEntries.size() - 1, entry);
+                } else {
+                    continue;
+                }
+            }
+            bestEntries.sort(RANKING);
+        }
+    }
+
+    /**
+     * An entry ranks lower, or is gone, when it is removed, so the best entries of a short prefix
+     * only have to be found again if it was one of them
+     */
+    private void demote(Entry entry) {
+        for (String shortPrefix : shortPrefixesOf(entry)) {
+            List<Entry> bestEntries = bestEntriesByShortPrefix.get(shortPrefix);
+            if (bestEntries == null || !bestEntries.contains(entry)) {
+                continue;
+            }
+            List<Entry> foundEntries = findBestEntries(shortPrefix);
+            if (foundEntries.isEmpty()) {
+                bestEntriesByShortPrefix.remove(shortPrefix);
+            } else {
+                bestEntriesByShortPrefix.put(shortPrefix, foundEntries);
+            }
+        }
+    }
+
+    private static Set<String> shortPrefixesOf(Entry entry) {
+        Set<String> shortPrefixes = new HashSet<>();
+        for (String key : entry.keys) {
+            for (int length = 1; length <= Math.min(PRECOMPUTED_PREFIX_LENGTH, key.length());
+                 length++) {
+                shortPrefixes.add(key.substring(0, length));
+            }
+        }
+        return shortPrefixes;
+    }
+
+    private List<Entry> findBestEntries(String prefix) {
+        return entriesStartingWith(prefix).sorted(RANKING)
+                                          .limit(maxSuggestions)
+                                          .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private Stream<Entry> entriesStartingWith(String prefix) {
+        Collection<List<Entry>> keyEntries =
+                entriesByKey.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        return keyEntries.stream()
+                         .flatMap(List::stream)
+                         .distinct();
+    }
+}
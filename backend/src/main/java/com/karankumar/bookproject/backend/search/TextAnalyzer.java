@@ -0,0 +1,52 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.search;
+
+import java.text.Normalizer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Splits text into the terms that are indexed and searched for
+ */
+public final class TextAnalyzer {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextAnalyzer() {}
+
+    /**
+     * @return the words in the text, in lower case and without accents. For example, "Café
+     * Society" becomes "cafe" and "society"
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String normalised = DIACRITICS.matcher(decomposed)
+                                      .replaceAll("")
+                                      .toLowerCase(Locale.ROOT);
+        return NON_ALPHANUMERIC.splitAsStream(normalised)
+                               .filter(term -> !term.isEmpty())
+                               .collect(Collectors.toList());
+    }
+}
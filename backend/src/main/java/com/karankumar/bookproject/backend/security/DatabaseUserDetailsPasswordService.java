@@ -18,7 +18,8 @@
 package com.karankumar.bookproject.backend.security;
 
 import com.karankumar.bookproject.backend.model.account.User;
-import com.karankumar.bookproject.backend.repository.UserRepository;
+import com.karankumar.bookproject.backend.service.UserService;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -26,22 +27,25 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class DatabaseUserDetailsPasswordService implements UserDetailsPasswordService {
-    private final UserRepository userRepository;
+    private final UserService userService;
     private final UserDetailsMapper userDetailsMapper;
 
-    public DatabaseUserDetailsPasswordService(UserRepository userRepository,
+    // lazy, as the UserService depends on the authentication manager that this is part of
+    public DatabaseUserDetailsPasswordService(@Lazy UserService userService,
                                               UserDetailsMapper userDetailsMapper) {
-        this.userRepository = userRepository;
+        this.userService = userService;
         this.userDetailsMapper = userDetailsMapper;
     }
 
+    /**
+     * Goes through the UserService, so that the cached user with the old password is evicted
+     */
     @Override
     public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                                  .orElseThrow(() -> new UsernameNotFoundException(
-                                          "User with the email " + userDetails.getUsername() +
-                                                  " was not found."));
-        user.setPassword(newPassword);
+        User user = userService.updateEncodedPassword(userDetails.getUsername(), newPassword)
+                               .orElseThrow(() -> new UsernameNotFoundException(
+                                       "User with the email " + userDetails.getUsername() +
+                                               " was not found."));
         return userDetailsMapper.toUserDetails(user);
     }
 }
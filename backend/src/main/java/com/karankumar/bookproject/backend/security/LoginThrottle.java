@@ -0,0 +1,103 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.security;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Limits the login attempts per username and per client IP address with token buckets, so that
+ * credential stuffing cannot make us run an unlimited number of BCrypt checks. The buckets are
+ * kept in caches (which are striped internally) and dropped once a key has been idle for a while.
+ * Rejected attempts are counted by the "login.throttled" counter, tagged by the limit that was hit
+ */
+@Component
+public class LoginThrottle {
+    private static final String COUNTER_NAME = "login.throttled";
+
+    private final LoginThrottleConfig config;
+    private final MeterRegistry meterRegistry;
+    private final Ticker ticker;
+    private final Cache<String, TokenBucket> usernameBuckets;
+    private final Cache<String, TokenBucket> ipAddressBuckets;
+
+    @Autowired
+    public LoginThrottle(LoginThrottleConfig config, MeterRegistry meterRegistry) {
+        this(config, meterRegistry, Ticker.systemTicker());
+    }
+
+    LoginThrottle(LoginThrottleConfig config, MeterRegistry meterRegistry, Ticker ticker) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.ticker = ticker;
+        this.usernameBuckets = buildBuckets(config, ticker);
+        this.ipAddressBuckets = buildBuckets(config, ticker);
+    }
+
+    private static Cache<String, TokenBucket> buildBuckets(LoginThrottleConfig config,
+                                                           Ticker ticker) {
+        return CacheBuilder.newBuilder()
+                           .maximumSize(config.getMaxTrackedKeys())
+                           .expireAfterAccess(Duration.ofMinutes(config.getIdleMinutes()))
+                           .ticker(ticker)
+                           .build();
+    }
+
+    /**
+     * Takes a token from the buckets of the IP address and of the username. This is cheap, so it
+     * should be called before the password is checked
+     *
+     * @return true if the login attempt may go ahead
+     */
+    public boolean tryAcquire(String username, String ipAddress) {
+        if (!tryTake(ipAddressBuckets, ipAddress, config.getIpAddressBurst(),
+                config.getIpAddressAttemptsPerMinute())) {
+            meterRegistry.counter(COUNTER_NAME, "limit", "ip-address").increment();
+            return false;
+        }
+
+        String normalisedUsername =
+                (username == null) ? "" : username.trim().toLowerCase(Locale.ROOT);
+        if (!tryTake(usernameBuckets, normalisedUsername, config.getUsernameBurst(),
+                config.getUsernameAttemptsPerMinute())) {
+            meterRegistry.counter(COUNTER_NAME, "limit", "username").increment();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean tryTake(Cache<String, TokenBucket> buckets, String key, int burst,
+                            int attemptsPerMinute) {
+        long now = ticker.read();
+        try {
+            return buckets.get(key, () -> new TokenBucket(burst, attemptsPerMinute, now))
+                          .tryTake(now);
+        } catch (ExecutionException e) {
+            // creating a bucket cannot throw a checked exception
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.security;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("application.login-throttle")
+@NoArgsConstructor
+@Getter
+@Setter
+public class LoginThrottleConfig {
+    /**
+     * The number of login attempts for one username that can be made in a burst
+     */
+    private int usernameBurst = 5;
+    /**
+     * The number of login attempts per minute for one username once the burst is used up
+     */
+    private int usernameAttemptsPerMinute = 5;
+    /**
+     * The number of login attempts from one IP address that can be made in a burst
+     */
+    private int ipAddressBurst = 20;
+    /**
+     * The number of login attempts per minute from one IP address once the burst is used up
+     */
+    private int ipAddressAttemptsPerMinute = 20;
+    /**
+     * The maximum number of usernames (and, separately, IP addresses) that are tracked
+     */
+    private long maxTrackedKeys = 100_000;
+    /**
+     * How long a username or IP address is tracked after its last login attempt. This should be
+     * long enough for a full bucket to refill
+     */
+    private int idleMinutes = 15;
+}
@@ -0,0 +1,44 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.security;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("application.password-hashing")
+@NoArgsConstructor
+@Getter
+@Setter
+public class PasswordHashingConfig {
+    /**
+     * The BCrypt cost factor (log2 of the number of rounds, from 4 to 31). Passwords hashed with a
+     * lower cost are re-hashed with this one the next time the user logs in
+     */
+    private int strength = 10;
+    /**
+     * The number of passwords that can be hashed at the same time. This bounds the CPU that hashing
+     * can take away from other requests
+     */
+    private int workers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    /**
+     * The number of passwords that can wait for a free worker before new ones are rejected
+     */
+    private int maxQueued = 100;
+}
@@ -0,0 +1,115 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.security;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashes and checks passwords with BCrypt on a bounded pool of workers rather than on the request
+ * threads, so that a burst of logins cannot take every core away from the rest of the API. The
+ * calling thread waits for the result without using any CPU. Once every worker is busy and
+ * maxQueued passwords are waiting, new ones are rejected straight away with a
+ * {@link RejectedExecutionException}
+ */
+public class PasswordHashingService implements PasswordEncoder {
+    private static final String METRIC_NAME = "password.hashing";
+
+    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+
+    public PasswordHashingService(PasswordHashingConfig passwordHashingConfig,
+                                  MeterRegistry meterRegistry) {
+        this.bCryptPasswordEncoder = new BCryptPasswordEncoder(passwordHashingConfig.getStrength());
+        this.meterRegistry = meterRegistry;
+        this.executor = new ThreadPoolExecutor(
+                passwordHashingConfig.getWorkers(),
+                passwordHashingConfig.getWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(passwordHashingConfig.getMaxQueued()),
+                new ThreadFactoryBuilder().setNameFormat("password-hashing-%d")
+                                          .setDaemon(true)
+                                          .build(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        new ExecutorServiceMetrics(executor, METRIC_NAME, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash("encode", () -> bCryptPasswordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash("matches", () -> bCryptPasswordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Reading the cost factor of a hash is cheap, so this does not go through the workers
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return bCryptPasswordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T hash(String operation, Callable<T> hashing) {
+        Timer.Sample queued = Timer.start(meterRegistry);
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                queued.stop(meterRegistry.timer(METRIC_NAME + ".wait", "operation", operation));
+                return meterRegistry.timer(METRIC_NAME, "operation", operation)
+                                    .recordCallable(hashing);
+            });
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter(METRIC_NAME + ".rejected", "operation", operation).increment();
+            throw e;
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password hash", e);
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
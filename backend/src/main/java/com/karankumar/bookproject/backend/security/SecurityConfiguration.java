@@ -20,6 +20,11 @@ package com.karankumar.bookproject.backend.security;
 import com.karankumar.bookproject.backend.security.jwt.JwtConfig;
 import com.karankumar.bookproject.backend.security.jwt.JwtTokenVerifier;
 import com.karankumar.bookproject.backend.security.jwt.JwtUsernamePasswordAuthFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -31,7 +36,6 @@ import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import javax.crypto.SecretKey;
@@ -43,20 +47,29 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     private final DatabaseUserDetailsPasswordService databaseUserDetailsPasswordService;
     private final SecretKey secretKey;
     private final JwtConfig jwtConfig;
+    private final MeterRegistry meterRegistry;
+    private final PasswordHashingConfig passwordHashingConfig;
+    private final LoginThrottle loginThrottle;
 
     public SecurityConfiguration(DatabaseUserDetailsService databaseUserDetailsService,
                                  DatabaseUserDetailsPasswordService databaseUserDetailsPasswordService,
                                  SecretKey secretKey,
-                                 JwtConfig jwtConfig) {
+                                 JwtConfig jwtConfig,
+                                 MeterRegistry meterRegistry,
+                                 PasswordHashingConfig passwordHashingConfig,
+                                 LoginThrottle loginThrottle) {
         this.databaseUserDetailsService = databaseUserDetailsService;
         this.databaseUserDetailsPasswordService = databaseUserDetailsPasswordService;
         this.secretKey = secretKey;
         this.jwtConfig = jwtConfig;
+        this.meterRegistry = meterRegistry;
+        this.passwordHashingConfig = passwordHashingConfig;
+        this.loginThrottle = loginThrottle;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new PasswordHashingService(passwordHashingConfig, meterRegistry);
     }
 
     @Override
@@ -93,11 +106,25 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
             .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             .and()
             .addFilter(new JwtUsernamePasswordAuthFilter(authenticationManager(), jwtConfig,
-                    secretKey))
-            .addFilterAfter(new JwtTokenVerifier(secretKey, jwtConfig), JwtUsernamePasswordAuthFilter.class)
+                    secretKey, meterRegistry, loginThrottle))
+            .addFilterAfter(new JwtTokenVerifier(secretKey, jwtConfig, meterRegistry),
+                    JwtUsernamePasswordAuthFilter.class)
             .authorizeRequests()
             .antMatchers(HttpMethod.POST, "/api/register").permitAll()
+            .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+            .requestMatchers(EndpointRequest.to(PrometheusScrapeEndpoint.class))
+            .access(isManagementPortSeparate() ? "permitAll" : "authenticated")
             .anyRequest()
             .authenticated();
     }
+
+    /**
+     * The metrics can only be scraped without logging in if the actuator endpoints are served on
+     * their own port (see management.server.port), which should not be reachable publicly.
+     * Otherwise they would be on the public port, next to the rest of the API
+     */
+    private boolean isManagementPortSeparate() {
+        return ManagementPortType.get(getApplicationContext().getEnvironment()) ==
+                ManagementPortType.DIFFERENT;
+    }
 }
@@ -0,0 +1,65 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A lock-free token bucket: it starts full with {@code capacity} tokens and refills at a steady
+ * rate up to that capacity. Taking a token is a compare-and-set on an immutable state
+ */
+class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(int capacity, int tokensPerMinute, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    /**
+     * @return true if a token was taken, or false if the bucket is empty
+     */
+    boolean tryTake(long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double elapsedNanos = Math.max(0, nowNanos - current.updatedAtNanos);
+            double tokens = Math.min(capacity, current.tokens + elapsedNanos * tokensPerNano);
+            if (tokens < 1) {
+                return false;
+            }
+            long updatedAtNanos = Math.max(current.updatedAtNanos, nowNanos);
+            if (state.compareAndSet(current, new State(tokens - 1, updatedAtNanos))) {
+                return true;
+            }
+        }
+    }
+
+    private static final class State {
+        private final double tokens;
+        private final long updatedAtNanos;
+
+        private State(double tokens, long updatedAtNanos) {
+            this.tokens = tokens;
+            this.updatedAtNanos = updatedAtNanos;
+        }
+    }
+}
@@ -31,6 +31,11 @@ public class JwtConfig {
     private String secretKey;
     private String tokenPrefix;
     private Integer tokenExpirationAfterDays;
+    /**
+     * The maximum number of verified tokens that are remembered, so that a token's signature is only
+     * checked the first time it is seen (see JwtTokenVerifier)
+     */
+    private long verifiedTokenCacheSize = 10_000;
 
     public String getAuthorizationHeader() {
         return HttpHeaders.AUTHORIZATION;
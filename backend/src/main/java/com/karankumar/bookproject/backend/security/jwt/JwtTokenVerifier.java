@@ -18,10 +18,17 @@
 package com.karankumar.bookproject.backend.security.jwt;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -34,18 +41,40 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Authenticates requests that carry a JWT. A token's signature is only verified the first time it is
+ * seen: the decoded username and authorities are then cached until the token expires, keyed by a
+ * hash of the token so that the cache does not hold the tokens themselves
+ */
 public class JwtTokenVerifier extends OncePerRequestFilter {
+    private static final String TIMER_NAME = "jwt.verification";
+    // Tokens are valid for days, so this only evicts the tokens of users that stopped using them
+    private static final Duration VERIFIED_TOKEN_IDLE_TIME = Duration.ofHours(1);
+
     private final SecretKey secretKey;
     private final JwtConfig jwtConfig;
+    private final MeterRegistry meterRegistry;
+    private final Cache<HashCode, VerifiedToken> verifiedTokens;
 
-    public JwtTokenVerifier(SecretKey secretKey, JwtConfig jwtConfig) {
+    public JwtTokenVerifier(SecretKey secretKey, JwtConfig jwtConfig,
+                            MeterRegistry meterRegistry) {
         this.secretKey = secretKey;
         this.jwtConfig = jwtConfig;
+        this.meterRegistry = meterRegistry;
+        this.verifiedTokens = CacheBuilder.newBuilder()
+                                          .maximumSize(jwtConfig.getVerifiedTokenCacheSize())
+                                          .expireAfterAccess(VERIFIED_TOKEN_IDLE_TIME)
+                                          .recordStats()
+                                          .build();
+        GuavaCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified.tokens");
     }
 
     @Override
@@ -61,31 +90,65 @@ public class JwtTokenVerifier extends OncePerRequestFilter {
         }
 
         String token = authorizationHeader.replace(tokenPrefix ,"");
+        HashCode tokenHash = Hashing.sha256().hashString(token, StandardCharsets.UTF_8);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "invalid";
         try {
-            Jws<Claims> claimsJws = Jwts.parser()
-                                        .setSigningKey(secretKey)
-                                        .parseClaimsJws(token);
-            Claims body = claimsJws.getBody();
-            String username = body.getSubject();
-
-            var authorities = (List<Map<String, String>>) body.get("authorities");
-
-            Set<SimpleGrantedAuthority> simpleGrantedAuthorities = authorities.stream()
-                                                               .map(m -> new SimpleGrantedAuthority(
-                                                                       m.get("authority")))
-                                                               .collect(Collectors.toSet());
+            VerifiedToken verifiedToken = verifiedTokens.getIfPresent(tokenHash);
+            if (verifiedToken != null && !verifiedToken.isExpired()) {
+                outcome = "cached";
+            } else {
+                verifiedToken = verify(token);
+                verifiedTokens.put(tokenHash, verifiedToken);
+                outcome = "valid";
+            }
 
             Authentication authentication = new UsernamePasswordAuthenticationToken(
-                    username,
+                    verifiedToken.username,
                     null,
-                    simpleGrantedAuthorities
+                    verifiedToken.authorities
             );
             SecurityContextHolder.getContext().setAuthentication(authentication);
-
         } catch (JwtException e) {
+            verifiedTokens.invalidate(tokenHash);
             throw new IllegalStateException(String.format("Token %s cannot be trusted", token));
+        } finally {
+            sample.stop(meterRegistry.timer(TIMER_NAME, "outcome", outcome));
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private VerifiedToken verify(String token) {
+        Jws<Claims> claimsJws = Jwts.parser()
+                                    .setSigningKey(secretKey)
+                                    .parseClaimsJws(token);
+        Claims body = claimsJws.getBody();
+        String username = body.getSubject();
+
+        var authorities = (List<Map<String, String>>) body.get("authorities");
+
+        Set<SimpleGrantedAuthority> simpleGrantedAuthorities = authorities.stream()
+                                                           .map(m -> new SimpleGrantedAuthority(
+                                                                   m.get("authority")))
+                                                           .collect(Collectors.toUnmodifiableSet());
+        return new VerifiedToken(username, simpleGrantedAuthorities, body.getExpiration());
+    }
+
+    private static final class VerifiedToken {
+        private final String username;
+        private final Set<SimpleGrantedAuthority> authorities;
+        private final long expiresAtMillis;
+
+        private VerifiedToken(String username, Set<SimpleGrantedAuthority> authorities,
+                              Date expiration) {
+            this.username = username;
+            this.authorities = authorities;
+            this.expiresAtMillis = (expiration == null) ? Long.MAX_VALUE : expiration.getTime();
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAtMillis;
+        }
+    }
 }
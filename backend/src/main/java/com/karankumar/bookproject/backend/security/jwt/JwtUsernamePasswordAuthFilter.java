@@ -18,7 +18,12 @@
 package com.karankumar.bookproject.backend.security.jwt;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Throwables;
+import com.karankumar.bookproject.backend.security.LoginThrottle;
 import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -30,25 +35,37 @@ import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.Date;
+import java.util.concurrent.RejectedExecutionException;
 
 public class JwtUsernamePasswordAuthFilter extends UsernamePasswordAuthenticationFilter {
+    private static final String TIMER_NAME = "jwt.login";
+
     private final AuthenticationManager authenticationManager;
     private final JwtConfig jwtConfig;
     private final SecretKey secretKey;
+    private final MeterRegistry meterRegistry;
+    private final LoginThrottle loginThrottle;
 
     public JwtUsernamePasswordAuthFilter(AuthenticationManager authenticationManager,
                                          JwtConfig jwtConfig,
-                                         SecretKey secretKey) {
+                                         SecretKey secretKey,
+                                         MeterRegistry meterRegistry,
+                                         LoginThrottle loginThrottle) {
         this.authenticationManager = authenticationManager;
         this.jwtConfig = jwtConfig;
         this.secretKey = secretKey;
+        this.meterRegistry = meterRegistry;
+        this.loginThrottle = loginThrottle;
     }
 
     @Override
     public Authentication attemptAuthentication(HttpServletRequest request,
                                                 HttpServletResponse response) throws AuthenticationException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
         try {
             UsernamePasswordAuthRequest authenticationRequest =
                     new ObjectMapper().readValue(
@@ -56,13 +73,44 @@ public class JwtUsernamePasswordAuthFilter extends UsernamePasswordAuthenticatio
                             UsernamePasswordAuthRequest.class
                     );
 
+            // rejects credential stuffing before it can cost a BCrypt check
+            if (!loginThrottle.tryAcquire(authenticationRequest.getUsername(),
+                    request.getRemoteAddr())) {
+                outcome = "throttled";
+                sendError(response, HttpStatus.TOO_MANY_REQUESTS.value(),
+                        "Too many login attempts, please try again later");
+                return null;
+            }
+
             Authentication authentication = new UsernamePasswordAuthenticationToken(
                     authenticationRequest.getUsername(),
                     authenticationRequest.getPassword()
             );
-            return authenticationManager.authenticate(authentication);
+            Authentication authenticated = authenticationManager.authenticate(authentication);
+            outcome = "success";
+            return authenticated;
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            // the password could not be checked because too many are already being hashed
+            if (Throwables.getCausalChain(e).stream()
+                          .noneMatch(RejectedExecutionException.class::isInstance)) {
+                throw e;
+            }
+            outcome = "rejected";
+            sendError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Too many logins are in progress, please try again later");
+            return null;
+        } finally {
+            sample.stop(meterRegistry.timer(TIMER_NAME, "outcome", outcome));
+        }
+    }
+
+    private static void sendError(HttpServletResponse response, int status, String message) {
+        try {
+            response.sendError(status, message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -24,6 +24,8 @@ import lombok.extern.java.Log;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -49,6 +51,21 @@ public class AuthorService {
         authorRepository.save(author);
     }
 
+    public void saveAll(@NonNull Collection<Author> authors) {
+        authorRepository.saveAll(authors);
+    }
+
+    /**
+     * @param fullNames lower case full names, without leading or trailing whitespace
+     * @return the authors whose full name matches one of the given names, ignoring case
+     */
+    public List<Author> findByLowerCaseFullNames(@NonNull Collection<String> fullNames) {
+        if (fullNames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return authorRepository.findByLowerCaseFullNameIn(fullNames);
+    }
+
     public void delete(@NonNull Author author) {
         authorRepository.delete(author);
     }
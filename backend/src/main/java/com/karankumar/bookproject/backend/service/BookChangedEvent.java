@@ -0,0 +1,78 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import com.karankumar.bookproject.backend.model.account.User;
+import lombok.Getter;
+
+import java.util.Optional;
+
+/**
+ * Published by the {@link BookService} whenever a book is saved or deleted, so that anything derived
+ * from a user's books can be kept up to date
+ */
+@Getter
+public class BookChangedEvent {
+    public enum ChangeType {
+        SAVED,
+        DELETED,
+        ALL_DELETED
+    }
+
+    private final ChangeType changeType;
+    private final Book book;
+    private final Long userId;
+
+    private BookChangedEvent(ChangeType changeType, Book book, Long userId) {
+        this.changeType = changeType;
+        this.book = book;
+        this.userId = userId;
+    }
+
+    public static BookChangedEvent saved(Book book) {
+        return new BookChangedEvent(ChangeType.SAVED, book, findUserId(book));
+    }
+
+    public static BookChangedEvent deleted(Book book) {
+        return new BookChangedEvent(ChangeType.DELETED, book, findUserId(book));
+    }
+
+    public static BookChangedEvent allDeleted() {
+        return new BookChangedEvent(ChangeType.ALL_DELETED, null, null);
+    }
+
+    /**
+     * @return the ID of the user whose shelves the book is on. If this cannot be determined (or all
+     * books were deleted), an empty Optional is returned and listeners should assume that every user
+     * may have been affected
+     */
+    public Optional<Long> findUserId() {
+        return Optional.ofNullable(userId);
+    }
+
+    private static Long findUserId(Book book) {
+        PredefinedShelf predefinedShelf = book.getPredefinedShelf();
+        if (predefinedShelf == null) {
+            return null;
+        }
+        User user = predefinedShelf.getUser();
+        return (user == null) ? null : user.getId();
+    }
+}
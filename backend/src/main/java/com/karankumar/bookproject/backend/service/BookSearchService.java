@@ -0,0 +1,305 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.account.User;
+import com.karankumar.bookproject.backend.repository.BookRepository;
+import com.karankumar.bookproject.backend.search.BookIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a full-text {@link BookIndex} of the books' titles, authors, tags, publishers and reviews
+ * in step with the database, and searches it for the logged in user.
+ *
+ * Saved and deleted books are indexed in batches on a background thread once their transaction
+ * has committed. A search first indexes any books that are still waiting, so that a user always
+ * finds the books that they have just saved.
+ *
+ * If an index directory is configured, the index is saved there periodically and when the
+ * application stops, and read back when it starts. The saved file is deleted as soon as the index
+ * changes, so after a crash the index is rebuilt from the database rather than read back stale.
+ * Books changed outside of the application are not picked up until the file is deleted or
+ * {@link #rebuild()} is called.
+ */
+@Service
+@Slf4j
+public class BookSearchService {
+    static final String INDEX_FILE_NAME = "books.idx";
+
+    private final BookRepository bookRepository;
+    private final UserService userService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final SearchConfig searchConfig;
+    private final SuggestionService suggestionService;
+    private final Path indexFile;
+    private final ScheduledExecutorService executor;
+
+    private final Set<Long> pendingBookIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean indexingScheduled = new AtomicBoolean();
+    // A search compares these to tell whether a change is still waiting to be indexed or is being
+    // indexed by the background thread: the pending books alone do not include the latter
+    private final AtomicLong queuedChanges = new AtomicLong();
+    private volatile long indexedChanges;
+    private volatile BookIndex bookIndex = new BookIndex();
+    // guarded by this
+    private boolean changedSinceSaved;
+
+    public BookSearchService(BookRepository bookRepository, UserService userService,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             SearchConfig searchConfig,
+                             @Lazy SuggestionService suggestionService) {
+        this.bookRepository = bookRepository;
+        this.userService = userService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.searchConfig = searchConfig;
+        this.suggestionService = suggestionService;
+        String indexDirectory = searchConfig.getIndexDirectory();
+        this.indexFile = (indexDirectory == null || indexDirectory.isBlank()) ? null :
+                Paths.get(indexDirectory).resolve(INDEX_FILE_NAME);
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("book-search-index").setDaemon(true)
+                                          .build()
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        if (!readIndexFile()) {
+            rebuild();
+        }
+        if (indexFile != null) {
+            int interval = searchConfig.getSaveIntervalSeconds();
+            executor.scheduleWithFixedDelay(this::saveIndex, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    private boolean readIndexFile() {
+        if (indexFile == null || !Files.exists(indexFile)) {
+            return false;
+        }
+        try {
+            bookIndex = BookIndex.readFrom(indexFile);
+            LOGGER.info("Read {} books from the search index in {}", bookIndex.size(), indexFile);
+            return true;
+        } catch (IOException e) {
+            LOGGER.warn("Could not read the search index in {}, so it will be rebuilt",
+                    indexFile, e);
+            return false;
+        }
+    }
+
+    /**
+     * Searches the titles, authors, tags, publishers and reviews of the logged in user's books.
+     * Every word in the query has to match the start of a word in the book
+     * @return the IDs of the matching books, the most relevant first
+     */
+    public List<Long> search(String query) {
+        indexPending();
+        Long userId = userService.getCurrentUser().getId();
+        return bookIndex.search(userId, query, searchConfig.getMaxResults());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getChangeType() == BookChangedEvent.ChangeType.ALL_DELETED) {
+            clear();
+            return;
+        }
+        Long bookId = event.getBook().getId();
+        if (bookId == null) {
+            return;
+        }
+        pendingBookIds.add(bookId);
+        queuedChanges.incrementAndGet();
+        if (indexingScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                indexingScheduled.set(false);
+                indexPending();
+            });
+        }
+    }
+
+    /**
+     * Indexes the changed books that have not been indexed yet, so that a search or suggestion
+     * sees the logged in user's own changes
+     */
+    void indexPending() {
+        if (indexedChanges != queuedChanges.get()) {
+            indexPendingBooks();
+        }
+    }
+
+    /**
+     * Reloads each pending book from the database. A book that is no longer there has been
+     * deleted, and so is removed from the index
+     */
+    private synchronized void indexPendingBooks() {
+        long changes = queuedChanges.get();
+        List<Long> bookIds = new ArrayList<>(pendingBookIds);
+        pendingBookIds.removeAll(bookIds);
+        boolean indexedEveryBook = true;
+        for (List<Long> batch : Lists.partition(bookIds, Book.BATCH_SIZE)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Set<Long> removedBookIds = new HashSet<>(batch);
+                    for (Book book : findBooksToIndex(batch)) {
+                        index(bookIndex, book);
+                        suggestionService.onBookIndexed(book);
+                        removedBookIds.remove(book.getId());
+                    }
+                    removedBookIds.forEach(bookId -> {
+                        bookIndex.remove(bookId);
+                        suggestionService.onBookRemoved(bookId);
+                    });
+                });
+            } catch (RuntimeException e) {
+                // try again with the next change or search
+                pendingBookIds.addAll(batch);
+                indexedEveryBook = false;
+                LOGGER.warn("Could not index {} books", batch.size(), e);
+            }
+        }
+        if (indexedEveryBook) {
+            indexedChanges = changes;
+        }
+        markChanged();
+    }
+
+    private List<Book> findBooksToIndex(List<Long> bookIds) {
+        List<Book> books = bookRepository.findReadOnlyBooksByIdIn(bookIds);
+        if (!books.isEmpty()) {
+            bookRepository.fetchTags(books);
+            bookRepository.fetchPublishers(books);
+        }
+        return books;
+    }
+
+    private static void index(BookIndex bookIndex, Book book) {
+        User user = book.getPredefinedShelf().getUser();
+        if (user == null) {
+            bookIndex.remove(book.getId());
+        } else {
+            bookIndex.put(book.getId(), user.getId(), BookIndex.termWeights(book));
+        }
+    }
+
+    /**
+     * Indexes every book again, reading them from the database in batches
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long changes = queuedChanges.get();
+        pendingBookIds.clear();
+        BookIndex rebuiltIndex = new BookIndex();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Long> bookIds = bookRepository.streamAllIds()) {
+                Iterators.partition(bookIds.iterator(), Book.BATCH_SIZE).forEachRemaining(batch -> {
+                    findBooksToIndex(batch).forEach(book -> index(rebuiltIndex, book));
+                    entityManager.clear();
+                });
+            }
+        });
+        bookIndex = rebuiltIndex;
+        indexedChanges = changes;
+        suggestionService.invalidateAll();
+        markChanged();
+        LOGGER.info("Rebuilt the search index of {} books in {} ms", rebuiltIndex.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    private synchronized void clear() {
+        long changes = queuedChanges.get();
+        pendingBookIds.clear();
+        indexedChanges = changes;
+        bookIndex.clear();
+        suggestionService.invalidateAll();
+        markChanged();
+    }
+
+    private synchronized void markChanged() {
+        if (indexFile == null || changedSinceSaved) {
+            return;
+        }
+        changedSinceSaved = true;
+        try {
+            Files.deleteIfExists(indexFile);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete the out of date search index in {}", indexFile, e);
+        }
+    }
+
+    synchronized void saveIndex() {
+        if (indexFile == null || !changedSinceSaved) {
+            return;
+        }
+        try {
+            Files.createDirectories(indexFile.getParent());
+            bookIndex.writeTo(indexFile);
+            changedSinceSaved = false;
+        } catch (IOException e) {
+            LOGGER.warn("Could not save the search index to {}", indexFile, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        try {
+            indexPending();
+        } catch (RuntimeException e) {
+            // leave the saved index deleted, so that it is rebuilt
+            LOGGER.warn("Could not index the last changed books before stopping", e);
+            return;
+        }
+        saveIndex();
+    }
+}
@@ -17,56 +17,136 @@
 
 package com.karankumar.bookproject.backend.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.collect.Lists;
+import com.karankumar.bookproject.backend.dto.BookDetails;
+import com.karankumar.bookproject.backend.dto.BookPage;
+import com.karankumar.bookproject.backend.dto.BookSummary;
 import com.karankumar.bookproject.backend.model.Author;
 import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
 import com.karankumar.bookproject.backend.model.Publisher;
 import com.karankumar.bookproject.backend.model.Shelf;
+import com.karankumar.bookproject.backend.model.UserCreatedShelf;
 import com.karankumar.bookproject.backend.repository.BookRepository;
+import com.karankumar.bookproject.backend.repository.BookRepository.BookAndTitle;
+import com.karankumar.bookproject.backend.util.PageTokenUtils;
+import io.micrometer.core.annotation.Timed;
 import lombok.NonNull;
 import lombok.extern.java.Log;
-import org.apache.commons.lang3.NotImplementedException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 
 @Service
 @Log
 @Transactional
 public class BookService {
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final Comparator<BookAndTitle> TITLE_ORDER =
+            Comparator.comparing(BookAndTitle::getTitle, String.CASE_INSENSITIVE_ORDER)
+                      .thenComparing(BookAndTitle::getBookId);
+
     private final AuthorService authorService;
     private final BookRepository bookRepository;
     private final PublisherService publisherService;
+    private final ReadingCounterService readingCounterService;
+    private final BookSearchService bookSearchService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExportService exportService;
+    private final UserService userService;
 
     public BookService(BookRepository bookRepository, AuthorService authorService,
-                       PublisherService publisherService) {
+                       PublisherService publisherService,
+                       ReadingCounterService readingCounterService,
+                       BookSearchService bookSearchService,
+                       ApplicationEventPublisher eventPublisher,
+                       ExportService exportService,
+                       UserService userService) {
         this.bookRepository = bookRepository;
         this.authorService = authorService;
         this.publisherService = publisherService;
+        this.readingCounterService = readingCounterService;
+        this.bookSearchService = bookSearchService;
+        this.eventPublisher = eventPublisher;
+        this.exportService = exportService;
+        this.userService = userService;
     }
 
     public Optional<Book> findById(@NonNull Long id) {
-        return bookRepository.findBookById(id);
+        Optional<Book> book = bookRepository.findBookById(id);
+        book.ifPresent(b -> fetchCollections(List.of(b)));
+        return book;
 //        return bookRepository.findById(id);
     }
 
+    @Timed("book.save")
     public Optional<Book> save(@NonNull Book book) {
         if (bookHasAuthorAndPredefinedShelf(book)) {
+            List<ReadingCounterService.Contribution> counted =
+                    readingCounterService.findContributions(List.of(book));
             addBookToAuthor(book);
             addBookToPublisher(book);
             authorService.save(book.getAuthor());
-            return Optional.of(bookRepository.save(book));
+            Book savedBook = bookRepository.save(book);
+            readingCounterService.update(counted, List.of(savedBook));
+            eventPublisher.publishEvent(BookChangedEvent.saved(savedBook));
+            return Optional.of(savedBook);
         }
         return Optional.empty();
     }
 
+    /**
+     * Saves the books that have an author and a predefined shelf. Unlike calling save() for each
+     * book, the inserts are queued until the transaction is flushed, so that Hibernate can send them
+     * to the database in JDBC batches. Only new authors are saved: an author that already has an
+     * ID is left as it is
+     * @return the books that were saved
+     */
+    public List<Book> saveAll(@NonNull Collection<Book> books) {
+        List<Book> booksToSave = books.stream()
+                                      .filter(this::bookHasAuthorAndPredefinedShelf)
+                                      .collect(Collectors.toList());
+        List<ReadingCounterService.Contribution> counted =
+                readingCounterService.findContributions(booksToSave);
+        Set<Author> authors = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Book book : booksToSave) {
+            // Existing authors are neither updated nor have their books loaded to add this one
+            if (book.getAuthor().getId() == null) {
+                addBookToAuthor(book);
+                authors.add(book.getAuthor());
+            }
+            addBookToPublisher(book);
+        }
+        authorService.saveAll(authors);
+
+        List<Book> savedBooks = bookRepository.saveAll(booksToSave);
+        readingCounterService.update(counted, savedBooks);
+        savedBooks.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.saved(book)));
+        return savedBooks;
+    }
+
     private boolean bookHasAuthorAndPredefinedShelf(Book book) {
         return book.getAuthor() != null && book.getPredefinedShelf() != null;
     }
@@ -93,18 +173,107 @@ public class BookService {
     }
 
     public List<Book> findAll() {
-        return bookRepository.findAllBooks();
+        return fetchCollections(bookRepository.findAllBooks());
+    }
+
+    /**
+     * @return the summary of every book, without loading any Book entities
+     */
+    @Transactional(readOnly = true)
+    public List<BookSummary> findAllSummaries() {
+        return bookRepository.findAllSummaries();
+    }
+
+    /**
+     * @return every field of the book, without loading the Book entity
+     */
+    @Transactional(readOnly = true)
+    public Optional<BookDetails> findDetailsById(@NonNull Long id) {
+        return bookRepository.findDetailsById(id)
+                             .map(details -> details
+                                     .withBookGenre(bookRepository.findGenresById(id))
+                                     .withTags(bookRepository.findTagNamesById(id))
+                                     .withPublishers(bookRepository.findPublisherNamesById(id)));
+    }
+
+    /**
+     * Initialises the tags and publishers of the given books with one IN query per collection
+     * (per batch of Book.BATCH_SIZE books), rather than fetch joining both collections in a
+     * single query and getting back a Cartesian product of tags and publishers for each book.
+     * Genres are batch fetched by Hibernate as soon as the books are loaded
+     * @param books books that were loaded in the current transaction
+     * @return the same books, with their collections initialised
+     */
+    private List<Book> fetchCollections(List<Book> books) {
+        for (List<Book> batch : Lists.partition(books, Book.BATCH_SIZE)) {
+            bookRepository.fetchTags(batch);
+            bookRepository.fetchPublishers(batch);
+        }
+        return books;
     }
 
+    /**
+     * Fetches a single page of book summaries ordered by ID. Each page is found by seeking past the
+     * last ID of the previous page, so fetching a later page costs the same as fetching the first one
+     * @param pageToken the token returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of books to return. This is capped at MAX_PAGE_SIZE
+     * @return the page of books, along with the token for the next page (if there is one)
+     * @throws IllegalArgumentException if the page token is malformed or the page size is not positive
+     */
+    @Transactional(readOnly = true)
+    public BookPage findPage(String pageToken, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be positive");
+        }
+        long lastSeenId = 0L;
+        if (pageToken != null) {
+            lastSeenId = PageTokenUtils.decode(pageToken)
+                                       .orElseThrow(() -> new IllegalArgumentException(
+                                               "The page token is not valid"));
+        }
+        int limit = Math.min(pageSize, MAX_PAGE_SIZE);
+
+        // fetch one extra book so that we know whether there is another page without a count query
+        List<BookSummary> books =
+                bookRepository.findSummariesAfterId(lastSeenId, PageRequest.of(0, limit + 1));
+        if (books.size() <= limit) {
+            return new BookPage(books, null);
+        }
+        List<BookSummary> page = books.subList(0, limit);
+        Long lastIdInPage = page.get(limit - 1).getId();
+        return new BookPage(page, PageTokenUtils.encode(lastIdInPage));
+    }
+
+    /**
+     * Searches the logged in user's books with the full-text index. See {@link BookSearchService}
+     * @param filterText the words to search for. If this is empty, every book is returned
+     * @return the matching books, the most relevant first
+     */
     public List<Book> findAll(String filterText) {
         if (filterText == null || filterText.isEmpty()) {
             return findAll();
         }
-        return bookRepository.findByTitleContainingIgnoreCase(filterText);
+        List<Long> rankedIds = bookSearchService.search(filterText);
+        if (rankedIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Book> booksById = bookRepository.findReadOnlyBooksByIdIn(rankedIds)
+                                                  .stream()
+                                                  .collect(Collectors.toMap(Book::getId,
+                                                          Function.identity()));
+        List<Book> books = rankedIds.stream()
+                                    .map(booksById::get)
+                                    .filter(Objects::nonNull)
+                                    .collect(Collectors.toList());
+        return fetchCollections(books);
     }
 
     public void delete(@NonNull Book book) {
+        List<ReadingCounterService.Contribution> counted =
+                readingCounterService.findContributions(List.of(book));
         bookRepository.delete(book);
+        readingCounterService.update(counted, Collections.emptyList());
+        eventPublisher.publishEvent(BookChangedEvent.deleted(book));
 
         if (!bookRepository.existsById(book.getId())) {
             Author author = book.getAuthor();
@@ -124,6 +293,8 @@ public class BookService {
                 bookRepository.count());
         bookRepository.deleteAll();
         authorService.deleteAll();
+        readingCounterService.deleteAll();
+        eventPublisher.publishEvent(BookChangedEvent.allDeleted());
 
         LOGGER.log(
                 Level.INFO, "Deleted all books in books & authors. Book repository size = " +
@@ -131,25 +302,144 @@ public class BookService {
         );
     }
 
-    public String getJsonRepresentationForBooksAsString() throws JsonProcessingException {
-        List<Book> books = bookRepository.findAll();
-
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.enable(SerializationFeature.WRAP_ROOT_VALUE);
-        mapper.enable(SerializationFeature.INDENT_OUTPUT);
-        ObjectWriter jsonWriter = mapper.writer().withRootName("AllBooks");
-
-        return jsonWriter.writeValueAsString(books);
+    /**
+     * Builds the logged in user's whole export in memory. {@link ExportService} streams the export
+     * instead, so prefer that for anything but small libraries
+     */
+    public String getJsonRepresentationForBooksAsString() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportService.exportBooks(outputStream, ExportService.Format.JSON);
+        return outputStream.toString(StandardCharsets.UTF_8);
     }
 
-    // TODO: split into findByShelfAndTitle and findShelfAndAuthor queries, and then merge result sets
+    /**
+     * As {@link #findByTitleOrAuthor(String, String, Pageable)}, but only for the books on a shelf,
+     * and without paging
+     */
     public List<Book> findByShelfAndTitleOrAuthor(Shelf shelf, String title, String authorsName) {
-        throw new NotImplementedException();
-//        return bookRepository.findByShelfAndTitleOrAuthor(shelf, title, authorsName);
+        return findByShelfAndTitleOrAuthor(shelf, title, authorsName, Pageable.unpaged());
+    }
+
+    /**
+     * As {@link #findByTitleOrAuthor(String, String, Pageable)}, but only for the books on a shelf
+     * @throws IllegalArgumentException if the shelf is neither a predefined nor a user created shelf
+     */
+    @Transactional(readOnly = true)
+    public List<Book> findByShelfAndTitleOrAuthor(@NonNull Shelf shelf, String title,
+                                                  String authorsName, @NonNull Pageable pageable) {
+        if (shelf instanceof PredefinedShelf) {
+            PredefinedShelf predefinedShelf = (PredefinedShelf) shelf;
+            return findByTitleOrAuthor(
+                    (prefix, limit) -> bookRepository.findIdsByPredefinedShelfAndTitleStartingWith(
+                            predefinedShelf, prefix, limit),
+                    (prefix, limit) -> bookRepository.findIdsByPredefinedShelfAndAuthorStartingWith(
+                            predefinedShelf, prefix, limit),
+                    title, authorsName, pageable
+            );
+        }
+        if (shelf instanceof UserCreatedShelf) {
+            UserCreatedShelf userCreatedShelf = (UserCreatedShelf) shelf;
+            return findByTitleOrAuthor(
+                    (prefix, limit) -> bookRepository.findIdsByUserCreatedShelfAndTitleStartingWith(
+                            userCreatedShelf, prefix, limit),
+                    (prefix, limit) -> bookRepository.findIdsByUserCreatedShelfAndAuthorStartingWith(
+                            userCreatedShelf, prefix, limit),
+                    title, authorsName, pageable
+            );
+        }
+        throw new IllegalArgumentException("Unknown type of shelf: " + shelf.getClass());
     }
 
+    /**
+     * As {@link #findByTitleOrAuthor(String, String, Pageable)}, but without paging
+     */
     public List<Book> findByTitleOrAuthor(String title, String authorsName) {
-        throw new NotImplementedException();
-//        return bookRepository.findByTitleOrAuthor(title, authorsName);
+        return findByTitleOrAuthor(title, authorsName, Pageable.unpaged());
+    }
+
+    /**
+     * Finds the logged in user's books whose title starts with {@code title}, or that are by an
+     * author with a name (e.g. a first name or a surname) that starts with {@code authorsName}.
+     * A null or blank criterion matches no books.
+     *
+     * The title and the author are looked up by separate queries that can each use an index, rather
+     * than by a single query with an OR across a join. Both queries return books in title order,
+     * and only as many as the requested page could need, so the title query reads about
+     * offset + page size entries of the title index however many books match. The two lists are
+     * then merged without duplicates, and only the books on the page are loaded
+     * @return the matching books, ordered by title
+     */
+    @Transactional(readOnly = true)
+    public List<Book> findByTitleOrAuthor(String title, String authorsName,
+                                          @NonNull Pageable pageable) {
+        Long userId = userService.getCurrentUser().getId();
+        return findByTitleOrAuthor(
+                (prefix, limit) ->
+                        bookRepository.findIdsByUserIdAndTitleStartingWith(userId, prefix, limit),
+                (prefix, limit) ->
+                        bookRepository.findIdsByUserIdAndAuthorStartingWith(userId, prefix, limit),
+                title, authorsName, pageable
+        );
+    }
+
+    private List<Book> findByTitleOrAuthor(
+            BiFunction<String, Pageable, List<BookAndTitle>> titleQuery,
+            BiFunction<String, Pageable, List<BookAndTitle>> authorQuery,
+            String title, String authorsName, Pageable pageable) {
+        Pageable idLimit = Pageable.unpaged();
+        if (pageable.isPaged()) {
+            long booksUpToEndOfPage = pageable.getOffset() + pageable.getPageSize();
+            idLimit = PageRequest.of(0, (int) Math.min(booksUpToEndOfPage, Integer.MAX_VALUE));
+        }
+        List<Long> ids = mergeByTitle(
+                findIdsStartingWith(titleQuery, title, idLimit),
+                findIdsStartingWith(authorQuery, authorsName, idLimit)
+        );
+        if (pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), ids.size());
+            ids = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+        }
+
+        Map<Long, Book> booksById = new HashMap<>();
+        for (List<Long> batch : Lists.partition(ids, Book.BATCH_SIZE)) {
+            bookRepository.findReadOnlyBooksByIdIn(batch)
+                          .forEach(book -> booksById.put(book.getId(), book));
+        }
+        List<Book> books = ids.stream()
+                              .map(booksById::get)
+                              .filter(Objects::nonNull)
+                              .collect(Collectors.toList());
+        return fetchCollections(books);
+    }
+
+    private static List<BookAndTitle> findIdsStartingWith(
+            BiFunction<String, Pageable, List<BookAndTitle>> query, String prefix,
+            Pageable idLimit) {
+        if (prefix == null || prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        String escapedPrefix = prefix.trim()
+                                     .replace(BookRepository.LIKE_ESCAPE,
+                                             BookRepository.LIKE_ESCAPE + BookRepository.LIKE_ESCAPE)
+                                     .replace("%", BookRepository.LIKE_ESCAPE + "%")
+                                     .replace("_", BookRepository.LIKE_ESCAPE + "_");
+        return query.apply(escapedPrefix, idLimit);
+    }
+
+    /**
+     * Merges two lists of books that are each ordered by title. The titles are compared ignoring
+     * case, like the database's collation does
+     * @return the IDs of the books in either list, ordered by title and then ID, and without
+     * duplicates
+     */
+    static List<Long> mergeByTitle(List<BookAndTitle> first, List<BookAndTitle> second) {
+        Map<Long, BookAndTitle> books = new HashMap<>();
+        first.forEach(book -> books.putIfAbsent(book.getBookId(), book));
+        second.forEach(book -> books.putIfAbsent(book.getBookId(), book));
+        return books.values()
+                    .stream()
+                    .sorted(TITLE_ORDER)
+                    .map(BookAndTitle::getBookId)
+                    .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,134 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a version for each user that is bumped whenever one of their books, shelves or reading
+ * goals changes. The versions live in memory only, so an epoch that is picked at startup is part
+ * of every tag to make sure that a tag handed out before a restart can never match again
+ */
+@Service
+public class ChangeVersionService {
+    private final long epoch = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+    private final long startedAt = System.currentTimeMillis();
+
+    /**
+     * Bumped when a change may have affected every user, e.g. when all books are deleted
+     */
+    private final Version allUsersVersion = new Version(startedAt);
+    private final Version anyUserVersion = new Version(startedAt);
+    private final Map<Long, Version> userVersions = new ConcurrentHashMap<>();
+
+    /**
+     * @return an entity tag that changes whenever the given user's data changes
+     */
+    public String getTag(Long userId) {
+        Version userVersion = userVersions.get(userId);
+        long version = (userVersion == null) ? 0 : userVersion.number.get();
+        return String.format("\"%x-%d-%d-%d\"", epoch, userId, allUsersVersion.number.get(), version);
+    }
+
+    /**
+     * @return an entity tag that changes whenever the data of any user changes
+     */
+    public String getTagForAllUsers() {
+        return String.format("\"%x-%d\"", epoch, anyUserVersion.number.get());
+    }
+
+    /**
+     * @return the time (in milliseconds since the epoch) the given user's data last changed. As
+     * changes before startup are not known, this is never earlier than the startup time
+     */
+    public long getLastModified(Long userId) {
+        Version userVersion = userVersions.get(userId);
+        long userChangedAt = (userVersion == null) ? startedAt : userVersion.changedAt;
+        return Math.max(allUsersVersion.changedAt, userChangedAt);
+    }
+
+    public long getLastModifiedForAllUsers() {
+        return anyUserVersion.changedAt;
+    }
+
+    /**
+     * Bumps the version of the given user once the current transaction (if any) has committed, so
+     * that a client that polls in the meantime cannot cache the old data under the new tag
+     */
+    public void markChanged(Long userId) {
+        afterCommit(() -> bump(userId));
+    }
+
+    public void markAllChanged() {
+        afterCommit(this::bumpAll);
+    }
+
+    /**
+     * Already runs after the commit, where registering another synchronization would have no effect
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        event.findUserId()
+             .ifPresentOrElse(this::bump, this::bumpAll);
+    }
+
+    private void bump(Long userId) {
+        userVersions.computeIfAbsent(userId, id -> new Version(startedAt)).bump();
+        anyUserVersion.bump();
+    }
+
+    private void bumpAll() {
+        allUsersVersion.bump();
+        anyUserVersion.bump();
+    }
+
+    private static void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+
+    private static class Version {
+        private final AtomicLong number = new AtomicLong();
+        private volatile long changedAt;
+
+        private Version(long changedAt) {
+            this.changedAt = changedAt;
+        }
+
+        private void bump() {
+            number.incrementAndGet();
+            changedAt = Math.max(changedAt, System.currentTimeMillis());
+        }
+    }
+}
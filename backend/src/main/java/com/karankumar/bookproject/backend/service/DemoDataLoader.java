@@ -0,0 +1,107 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import com.karankumar.bookproject.backend.model.account.User;
+import com.karankumar.bookproject.backend.repository.AuthorRepository;
+import com.karankumar.bookproject.backend.repository.PublisherRepository;
+import com.karankumar.bookproject.backend.repository.TagRepository;
+import lombok.extern.java.Log;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.logging.Level;
+
+import static com.karankumar.bookproject.backend.util.TestData.generateAuthors;
+import static com.karankumar.bookproject.backend.util.TestData.generateBooks;
+import static com.karankumar.bookproject.backend.util.TestData.generateListOfTags;
+import static com.karankumar.bookproject.backend.util.TestData.generatePublishers;
+import static com.karankumar.bookproject.backend.util.TestData.setPredefinedShelfForBooks;
+
+/**
+ * Seeds demo data at startup when the demo profile is active: the authors, tags and publishers if
+ * there are none, and the predefined shelves and a few books for every user without shelves. This
+ * is never active in production, where shelves are created when a user registers
+ */
+@Component
+@Profile("demo")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Log
+public class DemoDataLoader implements ApplicationRunner {
+    private final BookService bookService;
+    private final AuthorRepository authorRepository;
+    private final TagRepository tagRepository;
+    private final PublisherRepository publisherRepository;
+    private final UserService userService;
+    private final PredefinedShelfService predefinedShelfService;
+
+    public DemoDataLoader(BookService bookService, AuthorRepository authorRepository,
+                          TagRepository tagRepository, PublisherRepository publisherRepository,
+                          UserService userService, PredefinedShelfService predefinedShelfService) {
+        this.bookService = bookService;
+        this.authorRepository = authorRepository;
+        this.tagRepository = tagRepository;
+        this.publisherRepository = publisherRepository;
+        this.userService = userService;
+        this.predefinedShelfService = predefinedShelfService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (authorRepository.count() == 0) {
+            authorRepository.saveAll(generateAuthors());
+        }
+
+        if (tagRepository.count() == 0) {
+            tagRepository.saveAll(generateListOfTags());
+        }
+
+        if (publisherRepository.count() == 0) {
+            publisherRepository.saveAll(generatePublishers());
+        }
+
+        List<User> users = userService.findAllWithoutPredefinedShelves();
+        for (User user : users) {
+            List<PredefinedShelf> predefinedShelves =
+                    predefinedShelfService.createPredefinedShelvesIfAbsent(user);
+            if (!predefinedShelves.isEmpty()) {
+                populateBookRepository(predefinedShelves);
+            }
+        }
+        LOGGER.log(Level.INFO, "Seeded demo data for " + users.size() + " users");
+    }
+
+    private void populateBookRepository(List<PredefinedShelf> predefinedShelves) {
+        List<Book> books = generateBooks(
+                authorRepository.findAll(),
+                tagRepository.findAll(),
+                predefinedShelves,
+                publisherRepository.findAll()
+        );
+        // saved through the service, so that the reading counters, the search index and the
+        // change versions include the demo books
+        bookService.saveAll(setPredefinedShelfForBooks(books, predefinedShelves));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Iterators;
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.repository.BookRepository;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes the logged in user's books to an output stream as they are read from the database, rather
+ * than building the whole export in memory first. Book IDs are read from a database cursor; each batch of
+ * Book.BATCH_SIZE books is then loaded with its associations, written, and evicted from the
+ * persistence context before the next batch is loaded. Memory use therefore does not depend on
+ * the number of books, and the first books are written as soon as the first batch is loaded.
+ */
+@Service
+@Slf4j
+public class ExportService {
+    public enum Format {
+        /**
+         * A single JSON object, with the books in an array under "AllBooks"
+         */
+        JSON("application/json", "books.json"),
+        /**
+         * Newline delimited JSON: one book per line
+         */
+        NDJSON("application/x-ndjson", "books.ndjson");
+
+        @Getter
+        private final String contentType;
+        @Getter
+        private final String fileName;
+
+        Format(String contentType, String fileName) {
+            this.contentType = contentType;
+            this.fileName = fileName;
+        }
+    }
+
+    static final String ROOT_NAME = "AllBooks";
+
+    // Thread-safe once configured, and expensive to create
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final UserService userService;
+
+    public ExportService(BookRepository bookRepository, EntityManager entityManager,
+                         UserService userService) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.userService = userService;
+    }
+
+    /**
+     * Writes the logged in user's books to the output stream, which is flushed after each batch but
+     * not closed
+     *
+     * @return the number of books written
+     */
+    @Transactional(readOnly = true)
+    public long exportBooks(OutputStream outputStream, Format format) throws IOException {
+        long booksWritten = 0;
+        Long userId = userService.getCurrentUser().getId();
+        try (Stream<Long> ids = bookRepository.streamIdsByUserId(userId);
+             JsonGenerator generator = createGenerator(outputStream, format)) {
+            if (format == Format.JSON) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart(ROOT_NAME);
+            }
+
+            Iterator<List<Long>> batches = Iterators.partition(ids.iterator(), Book.BATCH_SIZE);
+            while (batches.hasNext()) {
+                booksWritten += writeBatch(generator, batches.next());
+            }
+
+            if (format == Format.JSON) {
+                generator.writeEndArray();
+                generator.writeEndObject();
+            } else {
+                generator.writeRaw('\n');
+            }
+        }
+        LOGGER.info("Exported {} books", booksWritten);
+        return booksWritten;
+    }
+
+    private JsonGenerator createGenerator(OutputStream outputStream, Format format)
+            throws IOException {
+        JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (format == Format.NDJSON) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+        return generator;
+    }
+
+    private int writeBatch(JsonGenerator generator, List<Long> ids) throws IOException {
+        List<Book> books = bookRepository.findReadOnlyBooksByIdIn(ids);
+        bookRepository.fetchTags(books);
+        bookRepository.fetchPublishers(books);
+        for (Book book : books) {
+            generator.writeObject(book);
+        }
+        generator.flush();
+        entityManager.clear();
+        return books.size();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.backend.service;
+
+import com.karankumar.bookproject.backend.model.Author;
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import com.karankumar.bookproject.backend.model.UserCreatedShelf;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the authors and shelves of the rows of a single import, so that each one is looked up
+ * (or created) once per import rather than once per row.
+ *
+ * Entities found or created while a batch is being saved are only remembered by ID once that
+ * batch has been committed, since the persistence context is cleared between batches and a failed
+ * batch rolls back anything it created. The predefined shelves are loaded without their books and
+ * so must only be used as the book's side of the association.
+ */
+class ImportContext {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final AuthorService authorService;
+    private final UserCreatedShelfService userCreatedShelfService;
+    private final EntityManager entityManager;
+
+    private final Map<PredefinedShelf.ShelfName, PredefinedShelf> predefinedShelves =
+            new EnumMap<>(PredefinedShelf.ShelfName.class);
+
+    // Keyed by normalised author name
+    private final Map<String, Long> committedAuthorIds = new HashMap<>();
+    private final Map<String, Author> batchAuthors = new HashMap<>();
+
+    private final Map<String, UserCreatedShelf> committedCustomShelves = new HashMap<>();
+    private final Map<String, UserCreatedShelf> batchCustomShelves = new HashMap<>();
+
+    ImportContext(List<PredefinedShelf> predefinedShelves, AuthorService authorService,
+                  UserCreatedShelfService userCreatedShelfService, EntityManager entityManager) {
+        predefinedShelves.forEach(shelf ->
+                this.predefinedShelves.put(shelf.getPredefinedShelfName(), shelf));
+        this.authorService = authorService;
+        this.userCreatedShelfService = userCreatedShelfService;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Looks up, in bulk, the existing authors with any of the given names that have not been
+     * resolved yet. This should be called with all the author names of a batch before calling
+     * findOrCreateAuthor() for each row
+     */
+    void resolveAuthors(Collection<String> names) {
+        Set<String> unresolved = names.stream()
+                                      .filter(StringUtils::isNotBlank)
+                                      .map(ImportContext::normalise)
+                                      .filter(name -> !committedAuthorIds.containsKey(name))
+                                      .filter(name -> !batchAuthors.containsKey(name))
+                                      .collect(Collectors.toSet());
+        authorService.findByLowerCaseFullNames(unresolved).forEach(author ->
+                batchAuthors.putIfAbsent(normalise(author.getFullName()), author));
+    }
+
+    /**
+     * @return the author with the same name, ignoring case and differences in whitespace, or a new
+     * (unsaved) author if there is no such author. Empty if the name is blank
+     */
+    Optional<Author> findOrCreateAuthor(String name) {
+        if (StringUtils.isBlank(name)) {
+            return Optional.empty();
+        }
+        String key = normalise(name);
+        Long id = committedAuthorIds.get(key);
+        if (id != null) {
+            return Optional.of(entityManager.getReference(Author.class, id));
+        }
+        return Optional.of(batchAuthors.computeIfAbsent(key,
+                k -> new Author(WHITESPACE.matcher(name.trim()).replaceAll(" "))));
+    }
+
+    Optional<PredefinedShelf> findPredefinedShelf(PredefinedShelf.ShelfName shelfName) {
+        return Optional.ofNullable(predefinedShelves.get(shelfName));
+    }
+
+    UserCreatedShelf findOrCreateCustomShelf(String shelfName) {
+        UserCreatedShelf shelf = committedCustomShelves.get(shelfName);
+        if (shelf != null) {
+            return shelf;
+        }
+        return batchCustomShelves.computeIfAbsent(shelfName, userCreatedShelfService::findOrCreate);
+    }
+
+    /**
+     * Called once a batch has been committed. Must be called after the batch has been flushed,
+     * so that every new author has an ID
+     */
+    void commitBatch() {
+        batchAuthors.forEach((name, author) -> {
+            if (author.getId() != null) {
+                committedAuthorIds.put(name, author.getId());
+            }
+        });
+        batchAuthors.clear();
+        committedCustomShelves.putAll(batchCustomShelves);
+        batchCustomShelves.clear();
+    }
+
+    /**
+     * Called when a batch has been rolled back, so that nothing it created is reused
+     */
+    void rollbackBatch() {
+        batchAuthors.clear();
+        batchCustomShelves.clear();
+    }
+
+    static String normalise(String name) {
+        return WHITESPACE.matcher(name.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
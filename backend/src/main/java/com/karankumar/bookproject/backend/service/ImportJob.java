@@ -0,0 +1,98 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.backend.service;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An import that has been submitted to the {@link ImportJobService}
+ */
+public class ImportJob {
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    @Getter
+    private final String id = UUID.randomUUID().toString();
+    @Getter
+    private final String ownerEmail;
+    @Getter
+    private final ImportProgress progress = new ImportProgress();
+
+    private Status status = Status.QUEUED;
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    ImportJob(String ownerEmail) {
+        this.ownerEmail = ownerEmail;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return false if the job was cancelled before it started, in which case it must not be run
+     */
+    synchronized boolean start() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    synchronized void finish(Status finalStatus) {
+        if (progress.isCancelled() && finalStatus == Status.COMPLETED) {
+            finalStatus = Status.CANCELLED;
+        }
+        status = finalStatus;
+        finishedAt = Instant.now();
+    }
+
+    synchronized void cancel() {
+        progress.cancel();
+        if (status == Status.QUEUED) {
+            status = Status.CANCELLED;
+            finishedAt = Instant.now();
+        }
+    }
+
+    synchronized boolean isFinishedBefore(Instant instant) {
+        return finishedAt != null && finishedAt.isBefore(instant);
+    }
+
+    /**
+     * @return the number of rows parsed per second since the job started, or 0 if it has not
+     * started
+     */
+    public synchronized double getRowsPerSecond() {
+        if (startedAt == null) {
+            return 0;
+        }
+        Instant end = (finishedAt == null) ? Instant.now() : finishedAt;
+        long millis = Math.max(Duration.between(startedAt, end).toMillis(), 1);
+        return progress.getRowsParsed() * 1000.0 / millis;
+    }
+}
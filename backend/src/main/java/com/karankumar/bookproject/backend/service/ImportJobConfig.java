@@ -0,0 +1,44 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.backend.service;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("application.import")
+@NoArgsConstructor
+@Getter
+@Setter
+public class ImportJobConfig {
+    /**
+     * The number of imports that can run at the same time. Each one holds a database connection
+     * while a batch is being saved, so keep this well below the size of the connection pool
+     */
+    private int maxConcurrentJobs = 2;
+    /**
+     * The number of imports that can wait for a free slot before new ones are rejected
+     */
+    private int maxQueuedJobs = 10;
+    /**
+     * How long the progress of a finished import can still be polled for
+     */
+    private int finishedJobRetentionMinutes = 60;
+}
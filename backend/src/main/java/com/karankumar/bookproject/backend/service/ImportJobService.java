@@ -0,0 +1,156 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.backend.service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs Goodreads imports in the background so that a large file does not hold a request thread
+ * for the whole import. Imports run on a bounded pool of threads: once maxConcurrentJobs are
+ * running and maxQueuedJobs are waiting, new imports are rejected straight away rather than
+ * queueing without limit.
+ */
+@Service
+@Slf4j
+public class ImportJobService {
+    private final ImportService importService;
+    private final ThreadPoolExecutor executor;
+    private final Duration finishedJobRetention;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(ImportService importService, ImportJobConfig importJobConfig) {
+        this.importService = importService;
+        this.finishedJobRetention =
+                Duration.ofMinutes(importJobConfig.getFinishedJobRetentionMinutes());
+        this.executor = new ThreadPoolExecutor(
+                importJobConfig.getMaxConcurrentJobs(),
+                importJobConfig.getMaxConcurrentJobs(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(importJobConfig.getMaxQueuedJobs()),
+                new ThreadFactoryBuilder().setNameFormat("import-job-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Copies the Goodreads CSV export to a temporary file and queues it to be imported for the
+     * logged in user
+     *
+     * @throws RejectedExecutionException if too many imports are already running or queued
+     */
+    public ImportJob submitGoodreadsCsv(InputStream inputStream) throws IOException {
+        removeExpiredJobs();
+
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        ImportJob job = new ImportJob(securityContext.getAuthentication().getName());
+        Path csv = Files.createTempFile("goodreads-import-", ".csv");
+        try {
+            Files.copy(inputStream, csv, StandardCopyOption.REPLACE_EXISTING);
+            jobs.put(job.getId(), job);
+            executor.execute(DelegatingSecurityContextRunnable.create(() -> run(job, csv),
+                    securityContext));
+        } catch (IOException | RuntimeException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(csv);
+            throw e;
+        }
+        LOGGER.info("Queued import job {}", job.getId());
+        return job;
+    }
+
+    private void run(ImportJob job, Path csv) {
+        try {
+            if (!job.start()) {
+                LOGGER.info("Import job {} was cancelled before it started", job.getId());
+                return;
+            }
+            try (InputStream inputStream = Files.newInputStream(csv)) {
+                importService.importGoodreadsCsv(inputStream, job.getProgress());
+                job.finish(ImportJob.Status.COMPLETED);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Import job {} failed", job.getId(), e);
+                job.finish(ImportJob.Status.FAILED);
+            }
+            LOGGER.info("Import job {} finished with status {}", job.getId(), job.getStatus());
+        } finally {
+            deleteQuietly(csv);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete {}", path, e);
+        }
+    }
+
+    /**
+     * @return the job with the given ID if it belongs to the logged in user
+     */
+    public Optional<ImportJob> findForLoggedInUser(String id) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        return Optional.ofNullable(jobs.get(id))
+                       .filter(job -> job.getOwnerEmail().equals(email));
+    }
+
+    /**
+     * Cancels the job with the given ID if it belongs to the logged in user. A running import stops
+     * after its current row; books that have already been saved are kept
+     *
+     * @return the cancelled job
+     */
+    public Optional<ImportJob> cancelForLoggedInUser(String id) {
+        Optional<ImportJob> job = findForLoggedInUser(id);
+        job.ifPresent(ImportJob::cancel);
+        return job;
+    }
+
+    private void removeExpiredJobs() {
+        Instant cutOff = Instant.now().minus(finishedJobRetention);
+        jobs.values().removeIf(job -> job.isFinishedBefore(cutOff));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(ImportJob::cancel);
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.backend.service;
+
+import com.karankumar.bookproject.backend.dto.ImportResult;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The running totals of an import, which can be read (and the import cancelled) from another
+ * thread while the import is in progress
+ */
+public class ImportProgress {
+    private final AtomicInteger rowsParsed = new AtomicInteger();
+    private final AtomicInteger booksSaved = new AtomicInteger();
+    private final AtomicInteger rowsRejected = new AtomicInteger();
+    private volatile boolean cancelled;
+
+    void rowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    void rowRejected() {
+        rowsRejected.incrementAndGet();
+    }
+
+    void batchSaved(int batchSize, int savedInBatch) {
+        booksSaved.addAndGet(savedInBatch);
+        rowsRejected.addAndGet(batchSize - savedInBatch);
+    }
+
+    /**
+     * Asks the import to stop. Batches that have already been saved are kept
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public int getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public int getBooksSaved() {
+        return booksSaved.get();
+    }
+
+    public int getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public ImportResult toResult() {
+        return new ImportResult(getRowsParsed(), getBooksSaved(), getRowsRejected());
+    }
+}
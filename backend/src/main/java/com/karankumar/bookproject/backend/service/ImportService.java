@@ -17,24 +17,38 @@
 
 package com.karankumar.bookproject.backend.service;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import com.karankumar.bookproject.backend.dto.GoodreadsBookImport;
+import com.karankumar.bookproject.backend.dto.ImportResult;
 import com.karankumar.bookproject.backend.model.Author;
 import com.karankumar.bookproject.backend.model.Book;
 import com.karankumar.bookproject.backend.model.UserCreatedShelf;
 import com.karankumar.bookproject.backend.model.PredefinedShelf;
 import com.karankumar.bookproject.backend.model.RatingScale;
+import com.karankumar.bookproject.backend.util.CsvUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
 
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -43,17 +57,39 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ImportService {
     private static final double GOODREADS_RATING_SCALE_FACTOR = 2;
+    /**
+     * The number of rows that are converted and saved in a single transaction when streaming
+     */
+    public static final int IMPORT_BATCH_SIZE = 100;
+
+    // rows per second is the rate of the rows counter
+    private static final String ROWS_COUNTER_NAME = "import.rows";
+    private static final String REJECTED_ROWS_COUNTER_NAME = "import.rows.rejected";
+    private static final String SAVED_BOOKS_COUNTER_NAME = "import.books.saved";
+    private static final String IMPORT_TIMER_NAME = "import.duration";
 
     private final BookService bookService;
+    private final AuthorService authorService;
     private final PredefinedShelfService predefinedShelfService;
     private final UserCreatedShelfService userCreatedShelfService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
 
     public ImportService(BookService bookService,
+                         AuthorService authorService,
                          PredefinedShelfService predefinedShelfService,
-                         UserCreatedShelfService userCreatedShelfService) {
+                         UserCreatedShelfService userCreatedShelfService,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
         this.bookService = bookService;
+        this.authorService = authorService;
         this.predefinedShelfService = predefinedShelfService;
         this.userCreatedShelfService = userCreatedShelfService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -69,51 +105,173 @@ public class ImportService {
             return Collections.emptyList();
         }
 
-        List<Book> books = toBooks(goodreadsBookImports);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        meterRegistry.counter(ROWS_COUNTER_NAME).increment(goodreadsBookImports.size());
+        List<Book> books = toBooks(goodreadsBookImports, createContext());
 
-        List<Book> savedBooks = books.stream()
-                                     .map(bookService::save)
-                                     .filter(Optional::isPresent)
-                                     .map(Optional::get)
-                                     .collect(Collectors.toList());
+        List<Book> savedBooks = bookService.saveAll(books);
         savedBooks.forEach(b -> LOGGER.info("Book: {} saved successfully", b));
+        meterRegistry.counter(SAVED_BOOKS_COUNTER_NAME).increment(savedBooks.size());
+        sample.stop(meterRegistry.timer(IMPORT_TIMER_NAME));
 
         return savedBooks;
     }
 
-    private List<Book> toBooks(Collection<? extends GoodreadsBookImport> goodreadsBookImports) {
+    /**
+     * Streams a Goodreads CSV export into the database. See {@link #importGoodreadsBooks(Iterator)}
+     *
+     * @param inputStream the Goodreads CSV export
+     * @return a summary of the import
+     */
+    public ImportResult importGoodreadsCsv(InputStream inputStream) throws IOException {
+        return importGoodreadsCsv(inputStream, new ImportProgress());
+    }
+
+    /**
+     * Streams a Goodreads CSV export into the database, updating the given progress as it goes.
+     * See {@link #importGoodreadsBooks(Iterator, ImportProgress)}
+     */
+    public ImportResult importGoodreadsCsv(InputStream inputStream, ImportProgress progress)
+            throws IOException {
+        try (MappingIterator<GoodreadsBookImport> goodreadsBookImports =
+                     CsvUtils.stream(inputStream, GoodreadsBookImport.class)) {
+            return importGoodreadsBooks(goodreadsBookImports, progress);
+        }
+    }
+
+    /**
+     * See {@link #importGoodreadsBooks(Iterator, ImportProgress)}
+     */
+    public ImportResult importGoodreadsBooks(
+            Iterator<? extends GoodreadsBookImport> goodreadsBookImports) {
+        return importGoodreadsBooks(goodreadsBookImports, new ImportProgress());
+    }
+
+    /**
+     * Imports the books which are in Goodreads format, pulling one row at a time from the iterator.
+     * Rows are converted and saved in batches of IMPORT_BATCH_SIZE, each batch in its own
+     * transaction. The persistence context is flushed and cleared after every batch, so memory use
+     * stays flat regardless of the size of the import. Authors and shelves are resolved once per
+     * import rather than once per row (see {@link ImportContext})
+     *
+     * @param goodreadsBookImports the books to import
+     * @param progress updated after every row and batch. If it is cancelled, the import stops
+     *                 before the next row and the rows of the unsaved batch are dropped
+     * @return a summary of the import
+     */
+    public ImportResult importGoodreadsBooks(
+            Iterator<? extends GoodreadsBookImport> goodreadsBookImports,
+            ImportProgress progress) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ImportContext context = createContext();
+        List<GoodreadsBookImport> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        while (!progress.isCancelled() && goodreadsBookImports.hasNext()) {
+            progress.rowParsed();
+            meterRegistry.counter(ROWS_COUNTER_NAME).increment();
+            try {
+                batch.add(goodreadsBookImports.next());
+            } catch (RuntimeJsonMappingException e) {
+                LOGGER.error("Could not parse row {} of import", progress.getRowsParsed(), e);
+                progress.rowRejected();
+                rejectRows("unparseable", 1);
+                continue;
+            }
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                progress.batchSaved(batch.size(), saveBatch(batch, context));
+                batch.clear();
+            }
+        }
+        if (progress.isCancelled()) {
+            LOGGER.info("Import cancelled after {} rows", progress.getRowsParsed());
+        } else if (!batch.isEmpty()) {
+            progress.batchSaved(batch.size(), saveBatch(batch, context));
+        }
+
+        LOGGER.info("Imported {} of {} rows", progress.getBooksSaved(), progress.getRowsParsed());
+        sample.stop(meterRegistry.timer(IMPORT_TIMER_NAME));
+        return progress.toResult();
+    }
+
+    /**
+     * @return the number of books saved. If the transaction fails, none of the batch is saved
+     */
+    private int saveBatch(List<GoodreadsBookImport> batch, ImportContext context) {
+        // the rows that were converted, which are the ones lost if the transaction fails
+        AtomicInteger converted = new AtomicInteger();
+        try {
+            Integer booksSaved = transactionTemplate.execute(status -> {
+                List<Book> books = toBooks(batch, context);
+                converted.set(books.size());
+                int savedInBatch = bookService.saveAll(books).size();
+                entityManager.flush();
+                entityManager.clear();
+                return savedInBatch;
+            });
+            context.commitBatch();
+            int saved = (booksSaved == null) ? 0 : booksSaved;
+            meterRegistry.counter(SAVED_BOOKS_COUNTER_NAME).increment(saved);
+            return saved;
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not save a batch of {} imported books", batch.size(), e);
+            context.rollbackBatch();
+            rejectRows("save_failed", converted.get());
+            return 0;
+        }
+    }
+
+    private void rejectRows(String reason, int rows) {
+        meterRegistry.counter(REJECTED_ROWS_COUNTER_NAME, "reason", reason).increment(rows);
+    }
+
+    private ImportContext createContext() {
+        return new ImportContext(predefinedShelfService.findAllForLoggedInUserWithoutBooks(),
+                authorService, userCreatedShelfService, entityManager);
+    }
+
+    private List<Book> toBooks(Collection<? extends GoodreadsBookImport> goodreadsBookImports,
+                               ImportContext context) {
+        context.resolveAuthors(goodreadsBookImports.stream()
+                                                   .map(GoodreadsBookImport::getAuthor)
+                                                   .collect(Collectors.toList()));
         return goodreadsBookImports.stream()
-                                   .map(this::toBook)
+                                   .map(goodreadsBookImport -> toBook(goodreadsBookImport, context))
                                    .filter(Optional::isPresent)
                                    .map(Optional::get)
                                    .collect(Collectors.toList());
     }
 
-    private Optional<Book> toBook(GoodreadsBookImport goodreadsBookImport) {
+    private Optional<Book> toBook(GoodreadsBookImport goodreadsBookImport, ImportContext context) {
         if (StringUtils.isBlank(goodreadsBookImport.getTitle())) {
             LOGGER.error("Title is blank for import: {}", goodreadsBookImport);
+            rejectRows("blank_title", 1);
             return Optional.empty();
         }
 
-        Optional<Author> author = toAuthor(goodreadsBookImport.getAuthor());
+        Optional<Author> author = context.findOrCreateAuthor(goodreadsBookImport.getAuthor());
         if (author.isEmpty()) {
             LOGGER.error("Author is null for import: {}", goodreadsBookImport);
+            rejectRows("no_author", 1);
             return Optional.empty();
         }
 
         Optional<PredefinedShelf> predefinedShelf =
                 toPredefinedShelf(goodreadsBookImport.getBookshelves(),
                         goodreadsBookImport.getDateRead(),
-                        GoodreadsBookImport::toPredefinedShelfName);
+                        GoodreadsBookImport::toPredefinedShelfName, context);
         if (predefinedShelf.isEmpty()) {
             LOGGER.error("Predefined shelf is null for import: {}", goodreadsBookImport);
+            rejectRows("no_shelf", 1);
             return Optional.empty();
         }
 
-        Book book = new Book(goodreadsBookImport.getTitle(), author.get(), predefinedShelf.get());
+        // The shelf's books are not loaded, so only the book's side of the association is set
+        Book book = new Book();
+        book.setTitle(goodreadsBookImport.getTitle());
+        book.setAuthor(author.get());
+        book.setPredefinedShelf(predefinedShelf.get());
 
         Optional<UserCreatedShelf> customShelf = toCustomShelf(goodreadsBookImport.getBookshelves(),
-                GoodreadsBookImport::toPredefinedShelfName);
+                GoodreadsBookImport::toPredefinedShelfName, context);
         customShelf.ifPresent(book::setUserCreatedShelf);
 
         Optional<RatingScale> ratingScale =
@@ -123,19 +281,12 @@ public class ImportService {
         return Optional.of(book);
     }
 
-    private Optional<Author> toAuthor(String name) {
-        if (StringUtils.isBlank(name)) {
-            return Optional.empty();
-        }
-
-        return Optional.of(new Author(name));
-    }
-
     private Optional<PredefinedShelf> toPredefinedShelf(
             String shelves, LocalDate dateRead,
-            Function<String, Optional<PredefinedShelf.ShelfName>> predefinedShelfNameMapper) {
+            Function<String, Optional<PredefinedShelf.ShelfName>> predefinedShelfNameMapper,
+            ImportContext context) {
         if (Objects.nonNull(dateRead)) {
-            return Optional.of(predefinedShelfService.findReadShelf());
+            return context.findPredefinedShelf(PredefinedShelf.ShelfName.READ);
         }
         if (StringUtils.isBlank(shelves)) {
             return Optional.empty();
@@ -147,13 +298,13 @@ public class ImportService {
                      .filter(Optional::isPresent)
                      .findFirst()
                      .map(Optional::get)
-                     .map(predefinedShelfService::findByPredefinedShelfNameAndLoggedInUser)
-                     .map(Optional::get);
+                     .flatMap(context::findPredefinedShelf);
     }
 
     private Optional<UserCreatedShelf> toCustomShelf(
             String shelves,
-            Function<String, Optional<PredefinedShelf.ShelfName>> predefinedShelfNameMapper) {
+            Function<String, Optional<PredefinedShelf.ShelfName>> predefinedShelfNameMapper,
+            ImportContext context) {
         if (StringUtils.isBlank(shelves)) {
             return Optional.empty();
         }
@@ -166,7 +317,7 @@ public class ImportService {
                      .filter(isNotPredefinedShelf)
                      .findFirst()
                      .map(String::trim)
-                     .map(userCreatedShelfService::findOrCreate);
+                     .map(context::findOrCreateCustomShelf);
     }
 
     private Optional<RatingScale> toRatingScale(Double ratingValue, double scaleFactor) {
@@ -0,0 +1,56 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import com.karankumar.bookproject.backend.model.account.User;
+import lombok.extern.java.Log;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Creates the predefined shelves of users that registered before the shelves were created at
+ * registration, when the application is started with {@code --create-predefined-shelves}. This is a
+ * one-off backfill, and running it again does not change anything
+ */
+@Component
+@Log
+public class PredefinedShelfBackfillRunner implements ApplicationRunner {
+    static final String BACKFILL_OPTION = "create-predefined-shelves";
+
+    private final UserService userService;
+    private final PredefinedShelfService predefinedShelfService;
+
+    public PredefinedShelfBackfillRunner(UserService userService,
+                                         PredefinedShelfService predefinedShelfService) {
+        this.userService = userService;
+        this.predefinedShelfService = predefinedShelfService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(BACKFILL_OPTION)) {
+            List<User> users = userService.findAllWithoutPredefinedShelves();
+            LOGGER.log(Level.INFO, "Creating the predefined shelves of " + users.size() + " users");
+            users.forEach(predefinedShelfService::createPredefinedShelvesIfAbsent);
+        }
+    }
+}
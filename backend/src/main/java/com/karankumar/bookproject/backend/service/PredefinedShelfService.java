@@ -23,16 +23,11 @@ import com.karankumar.bookproject.backend.model.PredefinedShelfName;
 import com.karankumar.bookproject.backend.model.PredefinedShelf.ShelfName;
 import com.karankumar.bookproject.backend.model.Shelf;
 import com.karankumar.bookproject.backend.model.account.User;
-import com.karankumar.bookproject.backend.repository.AuthorRepository;
-import com.karankumar.bookproject.backend.repository.BookRepository;
 import com.karankumar.bookproject.backend.repository.PredefinedShelfRepository;
-import com.karankumar.bookproject.backend.repository.PublisherRepository;
-import com.karankumar.bookproject.backend.repository.TagRepository;
 import lombok.NonNull;
 import lombok.extern.java.Log;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PostConstruct;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -45,43 +40,27 @@ import static com.karankumar.bookproject.backend.model.PredefinedShelf.ShelfName
 import static com.karankumar.bookproject.backend.model.PredefinedShelf.ShelfName.READ;
 import static com.karankumar.bookproject.backend.model.PredefinedShelf.ShelfName.READING;
 import static com.karankumar.bookproject.backend.model.PredefinedShelf.ShelfName.TO_READ;
-import static com.karankumar.bookproject.backend.util.TestData.generateAuthors;
-import static com.karankumar.bookproject.backend.util.TestData.generateBooks;
-import static com.karankumar.bookproject.backend.util.TestData.generateListOfTags;
-import static com.karankumar.bookproject.backend.util.TestData.generatePublishers;
-import static com.karankumar.bookproject.backend.util.TestData.setPredefinedShelfForBooks;
 
 @Service
 @Log
 public class PredefinedShelfService {
     private static final String ALL_BOOKS_SHELF = "All books";
 
-    private final BookRepository bookRepository;
     private final PredefinedShelfRepository predefinedShelfRepository;
-    private final AuthorRepository authorRepository;
-    private final TagRepository tagRepository;
     private final UserService userService;
-    private final PublisherRepository publisherRepository;
-
-    public PredefinedShelfService(BookRepository bookRepository, AuthorRepository authorRepository,
-                                  PredefinedShelfRepository shelfRepository,
-                                  TagRepository tagRepository,
-                                  UserService userService,
-                                  PublisherRepository publisherRepository) {
-        this.bookRepository = bookRepository;
-        this.predefinedShelfRepository = shelfRepository;
 
-        this.authorRepository = authorRepository;
-        this.tagRepository = tagRepository;
+    public PredefinedShelfService(PredefinedShelfRepository shelfRepository,
+                                  UserService userService) {
+        this.predefinedShelfRepository = shelfRepository;
         this.userService = userService;
-        this.publisherRepository=publisherRepository;
     }
 
     public Optional<PredefinedShelf> findById(@NonNull Long id) {
         return predefinedShelfRepository.findById(id);
     }
 
-    // TODO: make private. We should create predefined shelves when a user registers and then not allow further predefined shelves to be created
+    // TODO: make private. Predefined shelves are created when a user registers (see
+    // createPredefinedShelvesIfAbsent), so further predefined shelves should not be created
     public void save(@NonNull PredefinedShelf shelf) {
         predefinedShelfRepository.save(shelf);
     }
@@ -90,6 +69,14 @@ public class PredefinedShelfService {
         return predefinedShelfRepository.findAllByUser(userService.getCurrentUser());
     }
 
+    /**
+     * Finds the logged in user's predefined shelves without loading the books on them. Adding a
+     * book to one of these shelves must only set the book's side of the association
+     */
+    public List<PredefinedShelf> findAllForLoggedInUserWithoutBooks() {
+        return predefinedShelfRepository.findAllByUserWithoutBooks(userService.getCurrentUser());
+    }
+
     public PredefinedShelf findToReadShelf() {
         return findByPredefinedShelfNameAndLoggedInUser(TO_READ).orElse(null);
     }
@@ -117,61 +104,17 @@ public class PredefinedShelfService {
         return predefinedShelfRepository.count();
     }
 
-    @PostConstruct
-    public void populateTestData() {
-        if (authorRepository.count() == 0) {
-            populateAuthorRepository();
-        }
-
-        if (tagRepository.count() == 0) {
-            populateTagRepository();
-        }
-
-        if (publisherRepository.count() == 0){
-            populatePublisherRepository();
-        }
-
-        for (User user : userService.findAll()) {
-            if (predefinedShelfRepository.countAllByUser(user) == 0) {
-                List<PredefinedShelf> predefinedShelves = populateShelfRepository(user);
-                populateBookRepository(predefinedShelves);
-            }
+    /**
+     * Creates the predefined shelves of a user that does not have any yet. This is idempotent, so it
+     * is safe to call for a user that already has them
+     *
+     * @return the shelves that were created, or an empty list if the user already had them
+     */
+    public List<PredefinedShelf> createPredefinedShelvesIfAbsent(@NonNull User user) {
+        if (predefinedShelfRepository.countAllByUser(user) > 0) {
+            return List.of();
         }
-
-        setShelfForEveryBookInBookRepository();
-    }
-
-    private void populateAuthorRepository() {
-        authorRepository.saveAll(generateAuthors());
-    }
-
-    private void populateTagRepository() {
-        tagRepository.saveAll(generateListOfTags());
-    }
-
-    private void populatePublisherRepository () {
-        publisherRepository.saveAll(generatePublishers());
-    }
-
-    private List<PredefinedShelf> populateShelfRepository(User user) {
-         return predefinedShelfRepository.saveAll(createPredefinedShelves(user));
-    }
-
-    private void populateBookRepository(List<PredefinedShelf> predefinedShelves) {
-        bookRepository.saveAll(
-                generateBooks(
-                        authorRepository.findAll(),
-                        tagRepository.findAll(),
-                        predefinedShelves,
-                        publisherRepository.findAll()
-                )
-        );
-    }
-
-    private void setShelfForEveryBookInBookRepository() {
-        List<PredefinedShelf> shelves = predefinedShelfRepository.findAll();
-        List<Book> books = setPredefinedShelfForBooks(bookRepository.findAll(), shelves);
-        bookRepository.saveAll(books);
+        return predefinedShelfRepository.saveAll(createPredefinedShelves(user));
     }
 
     private List<PredefinedShelf> createPredefinedShelves(User user) {
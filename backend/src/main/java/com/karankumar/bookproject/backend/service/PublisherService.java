@@ -40,6 +40,10 @@ public class PublisherService {
         return publisherRepository.findById(id);
     }
 
+    public Optional<Publisher> findByName(@NonNull String name) {
+        return publisherRepository.findByName(name.trim());
+    }
+
     public void save(@NonNull Publisher publisher) {
         if (StringUtils.isNotEmpty(publisher.getName())) {
             publisherRepository.save(publisher);
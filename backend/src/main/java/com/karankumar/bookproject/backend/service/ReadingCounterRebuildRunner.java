@@ -0,0 +1,50 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import lombok.extern.java.Log;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.logging.Level;
+
+/**
+ * Rebuilds the reading counters when the application is started with
+ * {@code --rebuild-reading-counters}. See {@link ReadingCounterService#rebuild()}
+ */
+@Component
+@Log
+public class ReadingCounterRebuildRunner implements ApplicationRunner {
+    static final String REBUILD_OPTION = "rebuild-reading-counters";
+
+    private final ReadingCounterService readingCounterService;
+
+    public ReadingCounterRebuildRunner(ReadingCounterService readingCounterService) {
+        this.readingCounterService = readingCounterService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REBUILD_OPTION)) {
+            LOGGER.log(Level.INFO, "Rebuilding the reading counters");
+            int counters = readingCounterService.rebuild();
+            LOGGER.log(Level.INFO, "Rebuilt " + counters + " reading counters");
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import com.google.common.collect.Lists;
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import com.karankumar.bookproject.backend.model.ReadingCounter;
+import com.karankumar.bookproject.backend.model.ReadingGoal.GoalType;
+import com.karankumar.bookproject.backend.repository.BookRepository;
+import com.karankumar.bookproject.backend.repository.ReadingCounterRepository;
+import lombok.NonNull;
+import lombok.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static com.karankumar.bookproject.backend.model.PredefinedShelf.ShelfName.READ;
+
+/**
+ * Keeps each user's {@link ReadingCounter}s up to date as their books are saved and deleted, so
+ * that the number of books or pages read this year is a single row lookup
+ */
+@Service
+@Transactional
+public class ReadingCounterService {
+    private static final String INSERT_COUNTER_SQL =
+            "INSERT INTO reading_counter (user_id, reading_year, books_finished, pages_finished) " +
+            "VALUES (?, ?, ?, ?)";
+
+    private final ReadingCounterRepository counterRepository;
+    private final BookRepository bookRepository;
+    private final UserService userService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReadingCounterService(ReadingCounterRepository counterRepository,
+                                 BookRepository bookRepository,
+                                 UserService userService,
+                                 JdbcTemplate jdbcTemplate) {
+        this.counterRepository = counterRepository;
+        this.bookRepository = bookRepository;
+        this.userService = userService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The same figure as ReadingGoalCalculator.howManyReadThisYear(), for the logged in user
+     * @param goalType either books or pages
+     * @return the number of books or pages read this year
+     */
+    @Transactional(readOnly = true)
+    public int howManyReadThisYear(@NonNull GoalType goalType) {
+        Long userId = userService.getCurrentUser().getId();
+        return counterRepository.findByUserIdAndYear(userId, LocalDate.now().getYear())
+                                .map(counter -> (goalType == GoalType.BOOKS) ?
+                                        counter.getBooksFinished() : counter.getPagesFinished())
+                                .orElse(0);
+    }
+
+    /**
+     * Finds what the given books count towards as they are in the database. This must be called
+     * before the books are saved or deleted, and the result passed to
+     * {@link #update(Collection, Collection)} afterwards. New books are skipped without a query
+     */
+    List<Contribution> findContributions(Collection<Book> books) {
+        List<Long> ids = books.stream()
+                              .map(Book::getId)
+                              .filter(Objects::nonNull)
+                              .collect(Collectors.toList());
+        List<Contribution> contributions = new ArrayList<>();
+        for (List<Long> batch : Lists.partition(ids, Book.BATCH_SIZE)) {
+            bookRepository.findFinishedByIdIn(batch, READ).forEach(finished ->
+                    contributions.add(new Contribution(
+                            finished.getUserId(),
+                            finished.getDateFinishedReading().getYear(),
+                            pagesOf(finished.getNumberOfPages())
+                    )));
+        }
+        return contributions;
+    }
+
+    /**
+     * Replaces what the books counted towards before they were changed with what they count towards
+     * now. The changes are summed up first, so each counter is written at most once
+     * @param before the result of {@link #findContributions(Collection)}
+     * @param after the books as they were saved. For deleted books, this should be empty
+     */
+    void update(Collection<Contribution> before, Collection<Book> after) {
+        Map<CounterKey, int[]> changes = new HashMap<>();
+        before.forEach(contribution -> addChange(changes, contribution, -1));
+        after.stream()
+             .map(ReadingCounterService::contributionOf)
+             .filter(Objects::nonNull)
+             .forEach(contribution -> addChange(changes, contribution, 1));
+        changes.forEach((key, change) -> increment(key, change[0], change[1]));
+    }
+
+    private static void addChange(Map<CounterKey, int[]> changes, Contribution contribution,
+                                  int sign) {
+        int[] change = changes.computeIfAbsent(
+                new CounterKey(contribution.getUserId(), contribution.getYear()), key -> new int[2]
+        );
+        change[0] += sign;
+        change[1] += sign * contribution.getPages();
+    }
+
+    private void increment(CounterKey key, int books, int pages) {
+        if (books == 0 && pages == 0) {
+            return;
+        }
+        if (counterRepository.increment(key.getUserId(), key.getYear(), books, pages) > 0) {
+            return;
+        }
+        try {
+            // A counter that was never created cannot be decremented, so this only adds books
+            jdbcTemplate.update(INSERT_COUNTER_SQL, key.getUserId(), key.getYear(),
+                    Math.max(books, 0), Math.max(pages, 0));
+        } catch (DuplicateKeyException e) {
+            // Another transaction created the counter in the meantime, so add to theirs instead.
+            // This goes through JDBC rather than a repository, as a failed repository call would
+            // mark the transaction that saves the book as rollback-only
+            counterRepository.increment(key.getUserId(), key.getYear(), books, pages);
+        }
+    }
+
+    private static Contribution contributionOf(Book book) {
+        PredefinedShelf shelf = book.getPredefinedShelf();
+        if (shelf == null || shelf.getPredefinedShelfName() != READ || shelf.getUser() == null ||
+                book.getDateFinishedReading() == null) {
+            return null;
+        }
+        return new Contribution(shelf.getUser().getId(),
+                book.getDateFinishedReading().getYear(), pagesOf(book.getNumberOfPages()));
+    }
+
+    private static int pagesOf(Integer numberOfPages) {
+        return (numberOfPages == null) ? 0 : numberOfPages;
+    }
+
+    /**
+     * Recounts every user's counters from their read shelves. Use this to backfill the counters,
+     * or to correct them after books were changed without going through the {@link BookService}
+     * @return the number of counters
+     */
+    public int rebuild() {
+        counterRepository.deleteAllInBatch();
+        List<ReadingCounter> counters =
+                bookRepository.countFinishedByUserAndYear(READ)
+                              .stream()
+                              .map(count -> new ReadingCounter(
+                                      count.getUserId(),
+                                      count.getFinishedYear(),
+                                      Math.toIntExact(count.getBooks()),
+                                      Math.toIntExact(count.getPages())
+                              ))
+                              .collect(Collectors.toList());
+        counterRepository.saveAll(counters);
+        return counters.size();
+    }
+
+    public void deleteAll() {
+        counterRepository.deleteAllInBatch();
+    }
+
+    /**
+     * A finished book on a user's read shelf, which counts towards the year it was finished in
+     */
+    @Value
+    static class Contribution {
+        Long userId;
+        int year;
+        int pages;
+    }
+
+    @Value
+    private static class CounterKey {
+        Long userId;
+        int year;
+    }
+}
@@ -28,9 +28,12 @@ import java.util.Optional;
 @Service
 public class ReadingGoalService {
     private final ReadingGoalRepository goalRepository;
+    private final ChangeVersionService changeVersionService;
 
-    public ReadingGoalService(ReadingGoalRepository goalRepository) {
+    public ReadingGoalService(ReadingGoalRepository goalRepository,
+                              ChangeVersionService changeVersionService) {
         this.goalRepository = goalRepository;
+        this.changeVersionService = changeVersionService;
     }
 
     public Optional<ReadingGoal> findById(@NonNull Long id) {
@@ -48,11 +51,14 @@ public class ReadingGoalService {
     private void overwritePreviouslySetGoal(@NonNull ReadingGoal goal) {
         goalRepository.deleteAll();
         goalRepository.save(goal);
+        // goals are not tied to a user yet
+        changeVersionService.markAllChanged();
     }
 
     // Only one goal can exist at a time, so we can safely delete all
     public void deleteAll() {
         goalRepository.deleteAll();
+        changeVersionService.markAllChanged();
     }
 
     public Long count() {
@@ -0,0 +1,44 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("application.search")
+@NoArgsConstructor
+@Getter
+@Setter
+public class SearchConfig {
+    /**
+     * Where the search index is saved so that it does not have to be rebuilt when the application
+     * starts. If this is not set, the index is only kept in memory. Each instance of the
+     * application needs its own directory
+     */
+    private String indexDirectory;
+    /**
+     * How often a changed index is saved, in addition to when the application stops
+     */
+    private int saveIntervalSeconds = 300;
+    /**
+     * The maximum number of books returned by a search
+     */
+    private int maxResults = 100;
+}
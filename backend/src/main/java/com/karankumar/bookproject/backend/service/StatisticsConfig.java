@@ -0,0 +1,46 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("application.statistics")
+@NoArgsConstructor
+@Getter
+@Setter
+public class StatisticsConfig {
+    /**
+     * Where the statistics are worked out
+     */
+    private Mode mode = Mode.IN_MEMORY;
+
+    public enum Mode {
+        /**
+         * Load the read shelf and work out every statistic in a single pass over its books
+         */
+        IN_MEMORY,
+        /**
+         * Let the database group and count the read shelf, so that only the totals and the few
+         * books that are shown are loaded. Use this for users with very large read shelves
+         */
+        DATABASE
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import com.karankumar.bookproject.backend.repository.BookRepository;
+import com.karankumar.bookproject.backend.statistics.StatisticsSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.karankumar.bookproject.backend.model.PredefinedShelf.ShelfName.READ;
+
+/**
+ * Computes all of the reading statistics for the logged in user, and caches the result until a
+ * book on one of their shelves is saved or deleted. Depending on the {@link StatisticsConfig}, the
+ * statistics are either worked out in a single pass over the read shelf, or from totals that are
+ * aggregated by the database
+ */
+@Service
+public class StatisticsSnapshotService {
+    // only a snapshot that is not cached yet is timed
+    private static final String SNAPSHOT_TIMER_NAME = "statistics.snapshot";
+
+    private final PredefinedShelfService predefinedShelfService;
+    private final UserService userService;
+    private final BookRepository bookRepository;
+    private final StatisticsConfig statisticsConfig;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, StatisticsSnapshot> snapshots = new ConcurrentHashMap<>();
+    // incremented on every invalidation so that a snapshot computed from stale data is not cached.
+    // These are kept per user, so that a change to one user's books does not stop every other
+    // user's snapshot from being cached
+    private final Map<Long, AtomicLong> invalidations = new ConcurrentHashMap<>();
+    private final AtomicLong allUsersInvalidations = new AtomicLong();
+
+    public StatisticsSnapshotService(PredefinedShelfService predefinedShelfService,
+                                     UserService userService,
+                                     BookRepository bookRepository,
+                                     StatisticsConfig statisticsConfig,
+                                     MeterRegistry meterRegistry) {
+        this.predefinedShelfService = predefinedShelfService;
+        this.userService = userService;
+        this.bookRepository = bookRepository;
+        this.statisticsConfig = statisticsConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // in memory, the read shelf is loaded with a fetch graph, so its books' genres are only
+    // fetched on access
+    @Transactional(readOnly = true)
+    public StatisticsSnapshot getSnapshotForLoggedInUser() {
+        Long userId = userService.getCurrentUser().getId();
+        StatisticsSnapshot cachedSnapshot = snapshots.get(userId);
+        if (cachedSnapshot != null) {
+            return cachedSnapshot;
+        }
+
+        long invalidationsBeforeComputing = countInvalidations(userId);
+        StatisticsConfig.Mode mode = statisticsConfig.getMode();
+        StatisticsSnapshot snapshot = meterRegistry.timer(SNAPSHOT_TIMER_NAME, "mode", mode.name())
+                .record(() -> (mode == StatisticsConfig.Mode.DATABASE) ?
+                        aggregateInDatabase() : computeInMemory());
+        snapshots.compute(userId, (id, existing) ->
+                (countInvalidations(id) == invalidationsBeforeComputing) ? snapshot : existing);
+        return snapshot;
+    }
+
+    private long countInvalidations(Long userId) {
+        AtomicLong userInvalidations = invalidations.get(userId);
+        long count = (userInvalidations == null) ? 0 : userInvalidations.get();
+        return count + allUsersInvalidations.get();
+    }
+
+    private StatisticsSnapshot computeInMemory() {
+        PredefinedShelf readShelf = predefinedShelfService.findReadShelf();
+        return StatisticsSnapshot.of(
+                (readShelf == null) ? Collections.emptySet() : readShelf.getBooks()
+        );
+    }
+
+    private StatisticsSnapshot aggregateInDatabase() {
+        StatisticsSnapshot.Totals totals = StatisticsSnapshot.totals();
+        PredefinedShelf readShelf = findReadShelfWithoutBooks();
+        if (readShelf == null) {
+            return totals.build();
+        }
+
+        bookRepository.countByGenreAndRating(readShelf).forEach(count ->
+                totals.addGenre(count.getGenre(), count.getRating(), count.getBooks()));
+        BookRepository.PageTotals pageTotals = bookRepository.sumPages(readShelf);
+        totals.addPages(pageTotals.getBooks(), pageTotals.getPages());
+        bookRepository.countByRating(readShelf).forEach(count ->
+                totals.addRating(count.getRating(), count.getBooks()));
+
+        // ties between books are broken by ID rather than by the order of the shelf's books
+        totals.bookWithMostPages(first(bookRepository.findWithPages(readShelf,
+                firstBy(Sort.Direction.DESC, "numberOfPages"))));
+        totals.mostLikedBook(first(bookRepository.findRated(readShelf,
+                firstBy(Sort.Direction.DESC, "rating"))));
+        totals.leastLikedBook(first(bookRepository.findRated(readShelf,
+                firstBy(Sort.Direction.ASC, "rating"))));
+
+        LocalDate startOfYear = LocalDate.now().withDayOfYear(1);
+        LocalDate endOfYear = startOfYear.plusYears(1).minusDays(1);
+        bookRepository.countByRatingStartedBetween(readShelf, startOfYear, endOfYear)
+                      .forEach(count ->
+                              totals.addRatingThisYear(count.getRating(), count.getBooks()));
+        totals.mostLikedBookThisYear(first(bookRepository.findRatedStartedBetween(
+                readShelf, startOfYear, endOfYear, firstBy(Sort.Direction.DESC, "rating"))));
+        totals.leastLikedBookThisYear(first(bookRepository.findRatedStartedBetween(
+                readShelf, startOfYear, endOfYear, firstBy(Sort.Direction.ASC, "rating"))));
+
+        return totals.build();
+    }
+
+    private PredefinedShelf findReadShelfWithoutBooks() {
+        return predefinedShelfService.findAllForLoggedInUserWithoutBooks()
+                                     .stream()
+                                     .filter(shelf -> shelf.getPredefinedShelfName() == READ)
+                                     .findFirst()
+                                     .orElse(null);
+    }
+
+    private static Pageable firstBy(Sort.Direction direction, String property) {
+        return PageRequest.of(0, 1, Sort.by(direction, property).and(Sort.by(direction, "id")));
+    }
+
+    private static Book first(List<Book> books) {
+        return books.isEmpty() ? null : books.get(0);
+    }
+
+    /**
+     * Invalidates once the change has been committed, so that the next snapshot sees the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        event.findUserId()
+             .ifPresentOrElse(this::invalidate, this::invalidateAll);
+    }
+
+    private void invalidate(Long userId) {
+        invalidations.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+        snapshots.remove(userId);
+    }
+
+    private void invalidateAll() {
+        allUsersInvalidations.incrementAndGet();
+        snapshots.clear();
+    }
+}
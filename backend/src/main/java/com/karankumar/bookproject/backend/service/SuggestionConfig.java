@@ -0,0 +1,47 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("application.suggest")
+@NoArgsConstructor
+@Getter
+@Setter
+public class SuggestionConfig {
+    /**
+     * The most suggestions that are returned for a prefix
+     */
+    private int maxSuggestions = 10;
+    /**
+     * The most distinct titles, authors, tags and publishers that are kept for a user. Once a user
+     * has this many, their other names are not suggested
+     */
+    private int maxEntriesPerUser = 20_000;
+    /**
+     * The most users whose suggestions are kept in memory at once
+     */
+    private int maxUsers = 500;
+    /**
+     * How long a user's suggestions are kept in memory after they were last used
+     */
+    private int idleMinutes = 30;
+}
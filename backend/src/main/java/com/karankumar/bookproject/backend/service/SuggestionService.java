@@ -0,0 +1,204 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.Publisher;
+import com.karankumar.bookproject.backend.model.Tag;
+import com.karankumar.bookproject.backend.model.account.User;
+import com.karankumar.bookproject.backend.repository.BookRepository;
+import com.karankumar.bookproject.backend.search.Suggestion;
+import com.karankumar.bookproject.backend.search.SuggestionIndex;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Suggests titles, authors, tags and publishers as the logged in user types. A user's
+ * {@link SuggestionIndex} is built from the database the first time that they ask for
+ * suggestions, and is then kept up to date by the {@link BookSearchService} as it indexes changed
+ * books. Only a bounded number of users' suggestions are kept in memory, and those that have not
+ * been used for a while are dropped.
+ */
+@Service
+public class SuggestionService {
+    private final BookRepository bookRepository;
+    private final UserService userService;
+    private final BookSearchService bookSearchService;
+    private final TransactionTemplate transactionTemplate;
+    private final SuggestionConfig suggestionConfig;
+    private final Cache<Long, UserSuggestions> suggestionsByUser;
+
+    public SuggestionService(BookRepository bookRepository, UserService userService,
+                             BookSearchService bookSearchService,
+                             PlatformTransactionManager transactionManager,
+                             SuggestionConfig suggestionConfig) {
+        this.bookRepository = bookRepository;
+        this.userService = userService;
+        this.bookSearchService = bookSearchService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.suggestionConfig = suggestionConfig;
+        this.suggestionsByUser = CacheBuilder.newBuilder()
+                .maximumSize(suggestionConfig.getMaxUsers())
+                .expireAfterAccess(Duration.ofMinutes(suggestionConfig.getIdleMinutes()))
+                .build();
+    }
+
+    /**
+     * @param prefix the start of any word in a title, author, tag or publisher
+     * @param limit the most suggestions to return. This is capped at maxSuggestions
+     * @return the suggestions that the most books share first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        bookSearchService.indexPending();
+        Long userId = userService.getCurrentUser().getId();
+        return suggestionsByUser.asMap()
+                                .computeIfAbsent(userId, this::loadSuggestions)
+                                .suggest(prefix, limit);
+    }
+
+    private UserSuggestions loadSuggestions(Long userId) {
+        UserSuggestions suggestions = new UserSuggestions(new SuggestionIndex(
+                suggestionConfig.getMaxSuggestions(), suggestionConfig.getMaxEntriesPerUser()
+        ));
+        transactionTemplate.executeWithoutResult(status -> {
+            bookRepository.findTitlesAndAuthorsByUserId(userId).forEach(book -> {
+                suggestions.add(book.getBookId(), title(book.getTitle()));
+                suggestions.add(book.getBookId(), author(book.getAuthorName()));
+            });
+            bookRepository.findTagNamesByUserId(userId).forEach(tag ->
+                    suggestions.add(tag.getBookId(), tag(tag.getName())));
+            bookRepository.findPublisherNamesByUserId(userId).forEach(publisher ->
+                    suggestions.add(publisher.getBookId(), publisher(publisher.getName())));
+        });
+        return suggestions;
+    }
+
+    /**
+     * Updates the suggestions of the book's user, if they are in memory. The book's tags and
+     * publishers must be initialised
+     */
+    void onBookIndexed(Book book) {
+        User user = book.getPredefinedShelf().getUser();
+        if (user == null) {
+            onBookRemoved(book.getId());
+            return;
+        }
+        UserSuggestions suggestions = suggestionsByUser.getIfPresent(user.getId());
+        if (suggestions != null) {
+            suggestions.replace(book.getId(), suggestionsOf(book));
+        }
+    }
+
+    void onBookRemoved(Long bookId) {
+        suggestionsByUser.asMap().values().forEach(suggestions -> suggestions.remove(bookId));
+    }
+
+    void invalidateAll() {
+        suggestionsByUser.invalidateAll();
+    }
+
+    private static List<Suggestion> suggestionsOf(Book book) {
+        List<Suggestion> suggestions = new ArrayList<>();
+        suggestions.add(title(book.getTitle()));
+        if (book.getAuthor() != null) {
+            suggestions.add(author(book.getAuthor().getFullName()));
+        }
+        if (book.getTags() != null) {
+            for (Tag tag : book.getTags()) {
+                suggestions.add(tag(tag.getName()));
+            }
+        }
+        if (book.getPublishers() != null) {
+            for (Publisher publisher : book.getPublishers()) {
+                suggestions.add(publisher(publisher.getName()));
+            }
+        }
+        suggestions.removeIf(suggestion -> suggestion == null);
+        return suggestions;
+    }
+
+    private static Suggestion title(String title) {
+        return suggestion(title, Suggestion.Type.TITLE);
+    }
+
+    private static Suggestion author(String fullName) {
+        return suggestion(fullName, Suggestion.Type.AUTHOR);
+    }
+
+    private static Suggestion tag(String name) {
+        return suggestion(name, Suggestion.Type.TAG);
+    }
+
+    private static Suggestion publisher(String name) {
+        return suggestion(name, Suggestion.Type.PUBLISHER);
+    }
+
+    private static Suggestion suggestion(String text, Suggestion.Type type) {
+        return (text == null) ? null : new Suggestion(text.trim(), type);
+    }
+
+    /**
+     * A user's suggestions, along with the suggestions that each of their books added, so that
+     * they can be taken away again when the book changes
+     */
+    private static final class UserSuggestions {
+        private final SuggestionIndex index;
+        private final Map<Long, List<Suggestion>> suggestionsByBook = new HashMap<>();
+
+        private UserSuggestions(SuggestionIndex index) {
+            this.index = index;
+        }
+
+        private synchronized void add(Long bookId, Suggestion suggestion) {
+            if (suggestion == null) {
+                return;
+            }
+            // keep the stored suggestion, so that books which share a name share the same object
+            Suggestion stored = index.add(suggestion);
+            if (stored != null) {
+                suggestionsByBook.computeIfAbsent(bookId, id -> new ArrayList<>(4)).add(stored);
+            }
+        }
+
+        private synchronized void replace(Long bookId, List<Suggestion> suggestions) {
+            remove(bookId);
+            suggestions.forEach(suggestion -> add(bookId, suggestion));
+        }
+
+        private synchronized void remove(Long bookId) {
+            List<Suggestion> suggestions = suggestionsByBook.remove(bookId);
+            if (suggestions != null) {
+                suggestions.forEach(index::remove);
+            }
+        }
+
+        private synchronized List<Suggestion> suggest(String prefix, int limit) {
+            return index.suggest(prefix, limit);
+        }
+    }
+}
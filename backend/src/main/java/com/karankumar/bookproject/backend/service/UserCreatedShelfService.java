@@ -20,6 +20,7 @@ package com.karankumar.bookproject.backend.service;
 import com.karankumar.bookproject.backend.model.Book;
 import com.karankumar.bookproject.backend.model.Shelf;
 import com.karankumar.bookproject.backend.model.UserCreatedShelf;
+import com.karankumar.bookproject.backend.model.account.User;
 import com.karankumar.bookproject.backend.repository.UserCreatedShelfRepository;
 import lombok.NonNull;
 import lombok.extern.java.Log;
@@ -38,10 +39,13 @@ import java.util.stream.Collectors;
 public class UserCreatedShelfService {
     private final UserCreatedShelfRepository userCreatedShelfRepository;
     private final UserService userService;
+    private final ChangeVersionService changeVersionService;
 
-    public UserCreatedShelfService(UserCreatedShelfRepository userCreatedShelfRepository, UserService userService) {
+    public UserCreatedShelfService(UserCreatedShelfRepository userCreatedShelfRepository, UserService userService,
+                                   ChangeVersionService changeVersionService) {
         this.userCreatedShelfRepository = userCreatedShelfRepository;
         this.userService = userService;
+        this.changeVersionService = changeVersionService;
     }
 
     public UserCreatedShelf createCustomShelf(String shelfName) {
@@ -67,15 +71,19 @@ public class UserCreatedShelfService {
                             userCreatedShelf.getShelfName())
             );
         }
-        return userCreatedShelfRepository.save(userCreatedShelf);
+        UserCreatedShelf savedShelf = userCreatedShelfRepository.save(userCreatedShelf);
+        markChanged(userCreatedShelf);
+        return savedShelf;
     }
 
     public void delete(@NonNull UserCreatedShelf userCreatedShelf) {
         userCreatedShelfRepository.delete(userCreatedShelf);
+        markChanged(userCreatedShelf);
     }
 
     public void deleteAll() {
         userCreatedShelfRepository.deleteAll();
+        changeVersionService.markAllChanged();
     }
 
     public Long count() {
@@ -125,6 +133,15 @@ public class UserCreatedShelfService {
         		.orElseGet(() -> save(createCustomShelf(shelfName)));
     }
 
+    private void markChanged(UserCreatedShelf userCreatedShelf) {
+        User user = userCreatedShelf.getUser();
+        if (user == null || user.getId() == null) {
+            changeVersionService.markAllChanged();
+        } else {
+            changeVersionService.markChanged(user.getId());
+        }
+    }
+
     private boolean shelfNameExists(String shelfName) {
         if (PredefinedShelfService.isPredefinedShelf(shelfName.trim())) {
             return true;
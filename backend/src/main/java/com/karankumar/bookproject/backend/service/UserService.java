@@ -17,6 +17,8 @@
 
 package com.karankumar.bookproject.backend.service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.karankumar.bookproject.backend.model.Book;
 import com.karankumar.bookproject.backend.model.PredefinedShelf;
 import com.karankumar.bookproject.backend.model.account.UserRole;
@@ -36,16 +38,20 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validation;
 import javax.validation.Validator;
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 @Service
@@ -59,6 +65,21 @@ public class UserService {
 
     public static final String USER_NOT_FOUND_ERROR_MESSAGE = "Could not find the user with ID %d";
 
+    private static final String CURRENT_USER_ATTRIBUTE =
+            UserService.class.getName() + ".currentUser";
+    private static final long MAXIMUM_CACHED_USERS = 10_000;
+    private static final Duration CACHED_USER_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    // Detached users keyed by email, which is the subject of the JWT. The TTL bounds how long an
+    // entry can be stale if the user is changed without going through this service
+    private final Cache<String, User> usersByEmail =
+            CacheBuilder.newBuilder()
+                        .maximumSize(MAXIMUM_CACHED_USERS)
+                        .expireAfterWrite(CACHED_USER_TIME_TO_LIVE)
+                        .build();
+    // Incremented on every eviction, so that a lookup that raced with one is not cached
+    private final AtomicLong evictions = new AtomicLong();
+
     public UserService(UserRepository userRepository,
                        RoleRepository roleRepository,
                        PasswordEncoder passwordEncoder,
@@ -97,15 +118,62 @@ public class UserService {
                                   .build();
 
         userRepository.save(userToRegister);
+        predefinedShelfService.createPredefinedShelvesIfAbsent(userToRegister);
 
         authenticateUser(userToRegister);
         return userToRegister;
     }
 
+    /**
+     * Finds the logged in user. The user is remembered for the rest of the request, and cached
+     * across requests, so most requests look the user up at most once and usually not at all
+     */
     public User getCurrentUser() {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        // TODO: throw custom exception
-        return userRepository.findByEmail(email).orElseThrow();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            Object requestUser = requestAttributes.getAttribute(CURRENT_USER_ATTRIBUTE,
+                    RequestAttributes.SCOPE_REQUEST);
+            if (requestUser instanceof User && email.equals(((User) requestUser).getEmail())) {
+                return (User) requestUser;
+            }
+        }
+
+        User user = usersByEmail.getIfPresent(email);
+        if (user == null) {
+            long evictionsBeforeLookup = evictions.get();
+            // TODO: throw custom exception
+            user = userRepository.findByEmail(email).orElseThrow();
+            if (evictions.get() == evictionsBeforeLookup) {
+                usersByEmail.put(email, user);
+            }
+        }
+
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(CURRENT_USER_ATTRIBUTE, user,
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    private void evictCachedUser(String email) {
+        evictions.incrementAndGet();
+        if (email != null) {
+            usersByEmail.invalidate(email);
+        }
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            requestAttributes.removeAttribute(CURRENT_USER_ATTRIBUTE,
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Finds the users that do not have any predefined shelves yet, i.e. users that registered before
+     * the shelves were created at registration
+     */
+    public List<User> findAllWithoutPredefinedShelves() {
+        return userRepository.findAllWithoutPredefinedShelves();
     }
 
     // TODO: this can be removed once we are no longer populating test data
@@ -140,6 +208,23 @@ public class UserService {
         String encodedPassword = passwordEncoder.encode(password);
         user.setPassword(encodedPassword);
         userRepository.save(user);
+        evictCachedUser(user.getEmail());
+    }
+
+    /**
+     * Stores a password that has already been encoded, e.g. when the password encoder upgrades a
+     * user's hash on login
+     * @return the updated user, or an empty Optional if there is no user with the given email
+     */
+    public Optional<User> updateEncodedPassword(@NonNull String email,
+                                                @NonNull String encodedPassword) {
+        Optional<User> user = userRepository.findByEmail(email);
+        user.ifPresent(u -> {
+            u.setPassword(encodedPassword);
+            userRepository.save(u);
+            evictCachedUser(email);
+        });
+        return user;
     }
 
     public void deleteUserById(@NonNull Long id) {
@@ -150,6 +235,7 @@ public class UserService {
 
             bookRepository.deleteAll();
             userRepository.deleteById(id);
+            evictCachedUser(user.get().getEmail());
         } else {
             // TODO: throw custom exception.
             throw new ResponseStatusException(
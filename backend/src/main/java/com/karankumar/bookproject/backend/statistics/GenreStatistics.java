@@ -23,7 +23,6 @@ import com.karankumar.bookproject.backend.model.RatingScale;
 import com.karankumar.bookproject.backend.service.PredefinedShelfService;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
@@ -72,8 +71,8 @@ public class GenreStatistics extends Statistics {
 
     private EnumMap<BookGenre, Integer> countGenreReadOccurrences() {
         EnumMap<BookGenre, Integer> genresReadCount = populateEmptyGenreCount();
-        for (BookGenre bookGenre : genresReadCount.keySet()) {
-            genresReadCount.replace(bookGenre, Collections.frequency(genresRead(), bookGenre));
+        for (BookGenre bookGenre : genresRead()) {
+            genresReadCount.merge(bookGenre, 1, Integer::sum);
         }
         return genresReadCount;
     }
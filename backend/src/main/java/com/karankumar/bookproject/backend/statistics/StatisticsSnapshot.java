@@ -0,0 +1,330 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.statistics;
+
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.BookGenre;
+import com.karankumar.bookproject.backend.model.RatingScale;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * An immutable snapshot of all of the statistics for a read shelf. The figures are the same as
+ * those given by {@link GenreStatistics}, {@link PageStatistics}, {@link RatingStatistics} and
+ * {@link YearStatistics}.
+ *
+ * A snapshot is either computed in a single pass over the books of the shelf (see
+ * {@link #of(Collection)}), or built from totals that have already been aggregated, e.g. by the
+ * database (see {@link #totals()}).
+ */
+public final class StatisticsSnapshot {
+    private static final BookGenre[] GENRES = BookGenre.values();
+
+    private final BookGenre mostReadGenre;
+    private final BookGenre mostLikedGenre;
+    private final BookGenre leastLikedGenre;
+
+    private final Book bookWithMostPages;
+    private final Double averagePageLength;
+
+    private final Book mostLikedBook;
+    private final Book leastLikedBook;
+    private final Double averageRatingGiven;
+
+    private final Book mostLikedBookThisYear;
+    private final Book leastLikedBookThisYear;
+    private final Double averageRatingGivenThisYear;
+
+    private StatisticsSnapshot(Totals totals) {
+        mostReadGenre = totals.findMostReadGenre();
+        boolean atLeastTwoGenresRated =
+                totals.numberOfGenresRated > GenreStatistics.MINIMUM_NUMBER_OF_GENRES;
+        mostLikedGenre = atLeastTwoGenresRated ? totals.findMostLikedGenre() : null;
+        leastLikedGenre = atLeastTwoGenresRated ? totals.findLeastLikedGenre() : null;
+
+        bookWithMostPages = totals.bookWithMostPages;
+        averagePageLength = (totals.booksWithPages == 0) ? null :
+                Math.ceil(totals.totalPages / (float) totals.booksWithPages);
+
+        boolean atLeastTwoBooksRated = totals.booksRated > 1;
+        mostLikedBook = atLeastTwoBooksRated ? totals.mostLikedBook : null;
+        leastLikedBook = atLeastTwoBooksRated ? totals.leastLikedBook : null;
+        averageRatingGiven = atLeastTwoBooksRated ?
+                totals.totalRating / totals.booksRated : null;
+
+        mostLikedBookThisYear = totals.mostLikedBookThisYear;
+        leastLikedBookThisYear = totals.leastLikedBookThisYear;
+        averageRatingGivenThisYear = (totals.booksRatedThisYear == 0) ? null :
+                totals.totalRatingThisYear / totals.booksRatedThisYear;
+    }
+
+    /**
+     * @param readShelfBooks the books in the 'read' shelf
+     */
+    public static StatisticsSnapshot of(Collection<Book> readShelfBooks) {
+        Accumulator accumulator = new Accumulator(LocalDate.now().getYear());
+        readShelfBooks.forEach(accumulator::add);
+        return accumulator.build();
+    }
+
+    /**
+     * @return empty totals, to be filled in with counts that have already been aggregated
+     */
+    public static Totals totals() {
+        return new Totals();
+    }
+
+    public Optional<BookGenre> findMostReadGenre() {
+        return Optional.ofNullable(mostReadGenre);
+    }
+
+    public Optional<BookGenre> findMostLikedGenre() {
+        return Optional.ofNullable(mostLikedGenre);
+    }
+
+    public Optional<BookGenre> findLeastLikedGenre() {
+        return Optional.ofNullable(leastLikedGenre);
+    }
+
+    public Optional<Book> findBookWithMostPages() {
+        return Optional.ofNullable(bookWithMostPages);
+    }
+
+    public Optional<Double> calculateAveragePageLength() {
+        return Optional.ofNullable(averagePageLength);
+    }
+
+    public Optional<Book> findMostLikedBook() {
+        return Optional.ofNullable(mostLikedBook);
+    }
+
+    public Optional<Book> findLeastLikedBook() {
+        return Optional.ofNullable(leastLikedBook);
+    }
+
+    public Optional<Double> calculateAverageRatingGiven() {
+        return Optional.ofNullable(averageRatingGiven);
+    }
+
+    public Optional<Book> findMostLikedBookThisYear() {
+        return Optional.ofNullable(mostLikedBookThisYear);
+    }
+
+    public Optional<Book> findLeastLikedBookThisYear() {
+        return Optional.ofNullable(leastLikedBookThisYear);
+    }
+
+    public Optional<Double> calculateAverageRatingGivenThisYear() {
+        return Optional.ofNullable(averageRatingGivenThisYear);
+    }
+
+    /**
+     * The totals that a snapshot is built from. Ratings are counted in the same way as the
+     * Statistics classes: a book with a rating of NO_RATING counts as a rating of 0, except when
+     * rating genres. Ties between genres are broken in the same way as GenreStatistics
+     */
+    public static class Totals {
+        private final long[] genreReadCount = new long[GENRES.length];
+        private final double[] genreTotalRating = new double[GENRES.length];
+        private final boolean[] genreRated = new boolean[GENRES.length];
+        private int numberOfGenresRated;
+
+        private long totalPages;
+        private long booksWithPages;
+        private Book bookWithMostPages;
+
+        private double totalRating;
+        private long booksRated;
+        private Book mostLikedBook;
+        private Book leastLikedBook;
+
+        private double totalRatingThisYear;
+        private long booksRatedThisYear;
+        private Book mostLikedBookThisYear;
+        private Book leastLikedBookThisYear;
+
+        private Totals() {}
+
+        /**
+         * @param rating the rating of the books, or null if they have not been rated
+         * @param books the number of read books with this genre and rating
+         */
+        public Totals addGenre(BookGenre genre, RatingScale rating, long books) {
+            int index = genre.ordinal();
+            genreReadCount[index] += books;
+            if (rating != null && rating != RatingScale.NO_RATING) {
+                if (!genreRated[index]) {
+                    genreRated[index] = true;
+                    numberOfGenresRated++;
+                }
+                genreTotalRating[index] += RatingScale.toDouble(rating).orElse(0.0) * books;
+            }
+            return this;
+        }
+
+        /**
+         * @param books the number of read books that have a page count
+         * @param pages the sum of their page counts
+         */
+        public Totals addPages(long books, long pages) {
+            booksWithPages += books;
+            totalPages += pages;
+            return this;
+        }
+
+        /**
+         * @param books the number of read books with this (non-null) rating
+         */
+        public Totals addRating(RatingScale rating, long books) {
+            booksRated += books;
+            totalRating += RatingScale.toDouble(rating).orElse(0.0) * books;
+            return this;
+        }
+
+        /**
+         * @param books the number of read books, started this year, with this (non-null) rating
+         */
+        public Totals addRatingThisYear(RatingScale rating, long books) {
+            booksRatedThisYear += books;
+            totalRatingThisYear += RatingScale.toDouble(rating).orElse(0.0) * books;
+            return this;
+        }
+
+        public Totals bookWithMostPages(Book book) {
+            bookWithMostPages = book;
+            return this;
+        }
+
+        public Totals mostLikedBook(Book book) {
+            mostLikedBook = book;
+            return this;
+        }
+
+        public Totals leastLikedBook(Book book) {
+            leastLikedBook = book;
+            return this;
+        }
+
+        public Totals mostLikedBookThisYear(Book book) {
+            mostLikedBookThisYear = book;
+            return this;
+        }
+
+        public Totals leastLikedBookThisYear(Book book) {
+            leastLikedBookThisYear = book;
+            return this;
+        }
+
+        public StatisticsSnapshot build() {
+            return new StatisticsSnapshot(this);
+        }
+
+        private BookGenre findMostReadGenre() {
+            BookGenre mostRead = null;
+            for (BookGenre genre : GENRES) {
+                long count = genreReadCount[genre.ordinal()];
+                if (count != 0 && (mostRead == null || genreReadCount[mostRead.ordinal()] < count)) {
+                    mostRead = genre;
+                }
+            }
+            return mostRead;
+        }
+
+        private BookGenre findMostLikedGenre() {
+            BookGenre mostLiked = null;
+            for (BookGenre genre : GENRES) {
+                int index = genre.ordinal();
+                if (genreRated[index] && (mostLiked == null ||
+                        genreTotalRating[index] >= genreTotalRating[mostLiked.ordinal()])) {
+                    mostLiked = genre;
+                }
+            }
+            return mostLiked;
+        }
+
+        private BookGenre findLeastLikedGenre() {
+            BookGenre leastLiked = null;
+            for (BookGenre genre : GENRES) {
+                int index = genre.ordinal();
+                if (genreRated[index] && (leastLiked == null ||
+                        genreTotalRating[index] < genreTotalRating[leastLiked.ordinal()])) {
+                    leastLiked = genre;
+                }
+            }
+            return leastLiked;
+        }
+    }
+
+    /**
+     * Fills in the totals in a single pass over the read shelf, picking the books in the same way
+     * as the sort-based Statistics classes
+     */
+    private static final class Accumulator extends Totals {
+        private final int currentYear;
+
+        private Accumulator(int currentYear) {
+            this.currentYear = currentYear;
+        }
+
+        private void add(Book book) {
+            if (book.getBookGenre() != null) {
+                book.getBookGenre().forEach(genre -> addGenre(genre, book.getRating(), 1));
+            }
+            addPages(book);
+
+            RatingScale rating = book.getRating();
+            if (rating == null) {
+                return;
+            }
+            addRating(rating, 1);
+            mostLikedBook(moreOrEquallyLiked(book, super.mostLikedBook));
+            leastLikedBook(lessLiked(book, super.leastLikedBook));
+
+            LocalDate dateStartedReading = book.getDateStartedReading();
+            if (dateStartedReading != null && dateStartedReading.getYear() == currentYear) {
+                addRatingThisYear(rating, 1);
+                mostLikedBookThisYear(moreOrEquallyLiked(book, super.mostLikedBookThisYear));
+                leastLikedBookThisYear(lessLiked(book, super.leastLikedBookThisYear));
+            }
+        }
+
+        private void addPages(Book book) {
+            Integer pages = book.getNumberOfPages();
+            if (pages == null) {
+                return;
+            }
+            addPages(1, pages);
+            Book mostPages = super.bookWithMostPages;
+            if (mostPages == null || pages >= mostPages.getNumberOfPages()) {
+                bookWithMostPages(book);
+            }
+        }
+
+        private static Book moreOrEquallyLiked(Book book, Book mostLiked) {
+            return (mostLiked == null || book.getRating().compareTo(mostLiked.getRating()) >= 0) ?
+                    book : mostLiked;
+        }
+
+        private static Book lessLiked(Book book, Book leastLiked) {
+            return (leastLiked == null || book.getRating().compareTo(leastLiked.getRating()) < 0) ?
+                    book : leastLiked;
+        }
+    }
+}
@@ -40,9 +40,16 @@ public final class CsvUtils {
     private CsvUtils() {}
 
     public static <T> List<T> read(InputStream inputStream, Class<T> classType) throws IOException {
+        return stream(inputStream, classType).readAll();
+    }
+
+    /**
+     * Reads the CSV lazily, one row at a time, rather than loading every row into memory.
+     * The returned iterator should be closed once it is no longer needed
+     */
+    public static <T> MappingIterator<T> stream(InputStream inputStream, Class<T> classType)
+            throws IOException {
         CsvSchema schema = CsvSchema.emptySchema().withHeader();
-        MappingIterator<T> iterator =
-                csvMapper.readerFor(classType).with(schema).readValues(inputStream);
-        return iterator.readAll();
+        return csvMapper.readerFor(classType).with(schema).readValues(inputStream);
     }
 }
@@ -0,0 +1,65 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Encodes and decodes the opaque continuation tokens handed out by keyset paginated endpoints.
+ * Clients must treat a token as an opaque string and pass it back unchanged.
+ */
+public final class PageTokenUtils {
+    private static final String TOKEN_PREFIX = "id:";
+
+    private PageTokenUtils() {}
+
+    /**
+     * @param lastSeenId the ID of the last row in the page that was just returned
+     * @return a token from which the next page can be resumed
+     */
+    public static String encode(long lastSeenId) {
+        String token = TOKEN_PREFIX + lastSeenId;
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param pageToken a token previously returned by {@link #encode(long)}
+     * @return the last seen ID, or an empty Optional if the token is blank or malformed
+     */
+    public static Optional<Long> decode(String pageToken) {
+        if (pageToken == null || pageToken.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(pageToken),
+                    StandardCharsets.UTF_8);
+            if (!token.startsWith(TOKEN_PREFIX)) {
+                return Optional.empty();
+            }
+            long lastSeenId = Long.parseLong(token.substring(TOKEN_PREFIX.length()));
+            return (lastSeenId < 0) ? Optional.empty() : Optional.of(lastSeenId);
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException is a subclass of IllegalArgumentException
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+CREATE TABLE book_sequence
+(
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+-- The pooled optimizer allocates the 50 IDs up to and including next_val, so start past existing IDs
+INSERT INTO book_sequence
+SELECT COALESCE(MAX(id), 0) + 51
+FROM book;
+
+CREATE TABLE author_sequence
+(
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO author_sequence
+SELECT COALESCE(MAX(id), 0) + 51
+FROM author;
@@ -0,0 +1,21 @@
+CREATE TABLE reading_counter
+(
+    id             BIGINT NOT NULL AUTO_INCREMENT,
+    user_id        BIGINT NOT NULL,
+    reading_year   INT    NOT NULL,
+    books_finished INT    NOT NULL,
+    pages_finished INT    NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE unique_index (user_id, reading_year),
+    FOREIGN KEY (user_id) REFERENCES user (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+-- predefined_shelf_name is the ordinal of PredefinedShelf.ShelfName, so 2 is the read shelf
+INSERT INTO reading_counter (user_id, reading_year, books_finished, pages_finished)
+SELECT ps.user_id, YEAR(b.date_finished_reading), COUNT(*), COALESCE(SUM(b.number_of_pages), 0)
+FROM book b
+         INNER JOIN predefined_shelf ps ON b.predefined_shelf_id = ps.id
+WHERE ps.predefined_shelf_name = 2
+  AND ps.user_id IS NOT NULL
+  AND b.date_finished_reading IS NOT NULL
+GROUP BY ps.user_id, YEAR(b.date_finished_reading);
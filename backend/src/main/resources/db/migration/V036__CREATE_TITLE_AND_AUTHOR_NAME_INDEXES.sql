@@ -0,0 +1,6 @@
+-- The title and author searches are prefix matches (LIKE 'x%'), which can seek through these indexes.
+-- The column collations are case-insensitive, so the searches are too
+CREATE INDEX book_title_index ON book (title);
+CREATE INDEX book_predefined_shelf_id_title_index ON book (predefined_shelf_id, title);
+CREATE INDEX book_user_created_shelf_id_title_index ON book (user_created_shelf_id, title);
+CREATE INDEX author_full_name_index ON author (full_name);
@@ -0,0 +1,82 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.karankumar.bookproject.annotations.IntegrationTest;
+import com.karankumar.bookproject.backend.dto.BookPage;
+import com.karankumar.bookproject.backend.model.Author;
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.service.BookService;
+import com.karankumar.bookproject.backend.service.PredefinedShelfService;
+import com.karankumar.bookproject.backend.service.UserCreatedShelfService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+@IntegrationTest
+@DisplayName("BookController should")
+class BookControllerIntegrationTest {
+    private final BookController bookController;
+    private final BookService bookService;
+    private final PredefinedShelfService predefinedShelfService;
+    private final UserCreatedShelfService userCreatedShelfService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    BookControllerIntegrationTest(BookController bookController, BookService bookService,
+                                  PredefinedShelfService predefinedShelfService,
+                                  UserCreatedShelfService userCreatedShelfService,
+                                  ObjectMapper objectMapper) {
+        this.bookController = bookController;
+        this.bookService = bookService;
+        this.predefinedShelfService = predefinedShelfService;
+        this.userCreatedShelfService = userCreatedShelfService;
+        this.objectMapper = objectMapper;
+    }
+
+    @BeforeEach
+    void setUp() {
+        bookService.deleteAll();
+    }
+
+    @Test
+    void serializePage_whenBookIsOnCustomShelf() throws JsonProcessingException {
+        // given
+        Book book = new Book("title", new Author("firstName lastName"),
+                predefinedShelfService.findReadShelf());
+        book.setUserCreatedShelf(userCreatedShelfService.findOrCreate("custom shelf"));
+        bookService.save(book);
+
+        // when
+        // serialized outside of a transaction, like the response body is
+        BookPage page = bookController.page(10, null);
+        String json = objectMapper.writeValueAsString(page);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(page.getBooks()).hasSize(1);
+            softly.assertThat(page.getNextPageToken()).isNull();
+            softly.assertThat(json).contains("\"title\":\"title\"");
+        });
+    }
+}
@@ -14,7 +14,8 @@
 
 package com.karankumar.bookproject.backend.controller;
 
-import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.dto.BookDetails;
+import com.karankumar.bookproject.backend.dto.BookSummary;
 import com.karankumar.bookproject.backend.model.Shelf;
 import com.karankumar.bookproject.backend.service.BookService;
 import com.karankumar.bookproject.backend.service.PredefinedShelfService;
@@ -50,7 +51,7 @@ class BookControllerTest {
 
     @Test
     void all_returnsEmptyList_whenNoBooksExist() {
-        when(mockedBookService.findAll()).thenReturn(new ArrayList<>());
+        when(mockedBookService.findAllSummaries()).thenReturn(new ArrayList<>());
 
         assertThat(bookController.all().size()).isZero();
     }
@@ -58,21 +59,32 @@ class BookControllerTest {
     @Test
     void all_returnsNonEmptyList_whenBooksExist() {
         // given
-        List<Book> books = new ArrayList<>();
-        books.add(new Book());
-        books.add(new Book());
+        List<BookSummary> books = new ArrayList<>();
+        books.add(new BookSummary(1L, "title", "author", null, null, null));
+        books.add(new BookSummary(2L, "title", "author", null, null, null));
 
         // when
-        when(mockedBookService.findAll()).thenReturn(books);
+        when(mockedBookService.findAllSummaries()).thenReturn(books);
 
         // then
         assertThat(bookController.all().size()).isEqualTo(books.size());
     }
 
+    @Test
+    void page_returnsBadRequest_ifPageTokenIsInvalid() {
+        when(mockedBookService.findPage(any(String.class), any(Integer.class)))
+                .thenThrow(new IllegalArgumentException());
+
+        assertThatExceptionOfType(ResponseStatusException.class)
+                .isThrownBy(() -> bookController.page(10, "invalid"))
+                .matches(e -> e.getStatus() == HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     void findById_returnsBook_ifPresent() {
-        Book book = new Book();
-        when(mockedBookService.findById(any(Long.class)))
+        BookDetails book = new BookDetails(0L, "title", "author", null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null);
+        when(mockedBookService.findDetailsById(any(Long.class)))
                 .thenReturn(Optional.of(book));
 
         assertThat(bookController.findById(0L)).isEqualTo(book);
@@ -80,7 +92,7 @@ class BookControllerTest {
 
     @Test
     void findById_returnsNotFound_ifBookIsEmpty() {
-        when(mockedBookService.findById(any(Long.class)))
+        when(mockedBookService.findDetailsById(any(Long.class)))
                 .thenReturn(Optional.empty());
 
         assertThatExceptionOfType(ResponseStatusException.class)
@@ -0,0 +1,106 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.controller;
+
+import com.karankumar.bookproject.backend.model.account.User;
+import com.karankumar.bookproject.backend.service.ChangeVersionService;
+import com.karankumar.bookproject.backend.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConditionalGetInterceptorTest {
+    private static final Long USER_ID = 1L;
+
+    private ChangeVersionService changeVersionService;
+    private ConditionalGetInterceptor interceptor;
+    private HandlerMethod handler;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        changeVersionService = new ChangeVersionService();
+        UserService userService = mock(UserService.class);
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(USER_ID);
+        when(userService.getCurrentUser()).thenReturn(user);
+        interceptor = new ConditionalGetInterceptor(changeVersionService, userService);
+        handler = new HandlerMethod(new Endpoints(), Endpoints.class.getMethod("conditional"));
+    }
+
+    @Test
+    void preHandle_addsTag_onFirstRequest() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(get(null), response, handler)).isTrue();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(changeVersionService.getTag(USER_ID));
+    }
+
+    @Test
+    void preHandle_answersNotModified_whenNothingChanged() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean handled = interceptor.preHandle(get(changeVersionService.getTag(USER_ID)), response, handler);
+
+        assertThat(handled).isFalse();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @Test
+    void preHandle_runsEndpoint_whenUserChanged() {
+        String tag = changeVersionService.getTag(USER_ID);
+        changeVersionService.markChanged(USER_ID);
+
+        assertThat(interceptor.preHandle(get(tag), new MockHttpServletResponse(), handler)).isTrue();
+    }
+
+    @Test
+    void preHandle_runsEndpoint_whenNotAnnotated() throws NoSuchMethodException {
+        HandlerMethod unconditional =
+                new HandlerMethod(new Endpoints(), Endpoints.class.getMethod("unconditional"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(get(changeVersionService.getTag(USER_ID)), response, unconditional))
+                .isTrue();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+    }
+
+    private MockHttpServletRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+
+    static class Endpoints {
+        @ConditionalGet
+        public void conditional() {
+        }
+
+        public void unconditional() {
+        }
+    }
+}
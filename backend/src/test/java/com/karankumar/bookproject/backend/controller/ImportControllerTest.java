@@ -0,0 +1,65 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.backend.controller;
+
+import com.karankumar.bookproject.backend.service.ImportJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImportControllerTest {
+    private final ImportController importController;
+    private final ImportJobService mockedImportJobService;
+
+    ImportControllerTest() {
+        mockedImportJobService = mock(ImportJobService.class);
+        importController = new ImportController(mockedImportJobService);
+    }
+
+    @Test
+    void findById_returnsNotFound_ifJobDoesNotExist() {
+        when(mockedImportJobService.findForLoggedInUser("unknown")).thenReturn(Optional.empty());
+
+        assertThatExceptionOfType(ResponseStatusException.class)
+                .isThrownBy(() -> importController.findById("unknown"))
+                .matches(e -> e.getStatus() == HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void submit_returnsServiceUnavailable_ifTooManyImportsAreInProgress() throws IOException {
+        when(mockedImportJobService.submitGoodreadsCsv(any(InputStream.class)))
+                .thenThrow(new RejectedExecutionException());
+        MockMultipartFile file = new MockMultipartFile("file", new byte[0]);
+
+        assertThatExceptionOfType(ResponseStatusException.class)
+                .isThrownBy(() -> importController.submitGoodreadsImport(file))
+                .matches(e -> e.getStatus() == HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
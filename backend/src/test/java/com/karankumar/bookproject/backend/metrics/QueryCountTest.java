@@ -0,0 +1,71 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+@DisplayName("QueryCount should")
+class QueryCountTest {
+    @Test
+    void giveStatementsThatOnlyDifferByTheirValuesTheSameShape() {
+        assertSoftly(softly -> {
+            softly.assertThat(QueryCount.shapeOf("select * from book where id in (?, ?, ?)"))
+                  .isEqualTo(QueryCount.shapeOf("select * from book where id in (?)"));
+            softly.assertThat(QueryCount.shapeOf("select * from book where title = 'Dune'"))
+                  .isEqualTo(QueryCount.shapeOf("select * from book where title = 'It''s'"));
+            softly.assertThat(QueryCount.shapeOf("select * from book where id = 1"))
+                  .isEqualTo(QueryCount.shapeOf("select * from book where id = 20"));
+            softly.assertThat(QueryCount.shapeOf("select * from book0_ where id = ?"))
+                  .isEqualTo("select * from book0_ where id = ?");
+        });
+    }
+
+    @Test
+    void countStatementsInEveryOpenCount() {
+        try (QueryCount outer = QueryCount.start()) {
+            QueryCount.record("select * from author where id = 1");
+            try (QueryCount inner = QueryCount.start()) {
+                QueryCount.record("select * from author where id = 2");
+
+                assertThat(inner.getStatements()).isOne();
+            }
+            QueryCount.record("select * from tag");
+
+            assertSoftly(softly -> {
+                softly.assertThat(outer.getStatements()).isEqualTo(3);
+                softly.assertThat(outer.findRepeatedShapes(2))
+                      .isEqualTo(Map.of("select * from author where id = ?", 2));
+            });
+        }
+    }
+
+    @Test
+    void notCountWithoutAnOpenCount() {
+        QueryCount.record("select * from book");
+
+        try (QueryCount queryCount = QueryCount.start()) {
+            assertThat(queryCount.getStatements()).isZero();
+        }
+    }
+}
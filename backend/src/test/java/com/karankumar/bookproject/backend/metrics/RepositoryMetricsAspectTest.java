@@ -0,0 +1,64 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.metrics;
+
+import com.karankumar.bookproject.annotations.IntegrationTest;
+import com.karankumar.bookproject.backend.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@DisplayName("RepositoryMetricsAspect should")
+class RepositoryMetricsAspectTest {
+    private final BookRepository bookRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    RepositoryMetricsAspectTest(BookRepository bookRepository, MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Test
+    void timeEachRepositoryMethod() {
+        // given
+        // the registry is shared with the other tests that use the same context
+        long countsBefore = timerCount("count");
+        long findAllBooksBefore = timerCount("findAllBooks");
+
+        // when
+        bookRepository.count();
+        bookRepository.findAllBooks();
+
+        // then
+        assertThat(timerCount("count")).isEqualTo(countsBefore + 1);
+        assertThat(timerCount("findAllBooks")).isEqualTo(findAllBooksBefore + 1);
+    }
+
+    private long timerCount(String method) {
+        Timer timer = meterRegistry.find(RepositoryMetricsAspect.TIMER_NAME)
+                                   .tags("repository", "BookRepository", "method", method)
+                                   .timer();
+        return (timer == null) ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StartupTimelineTest {
+    private static final String BEAN_NAME = "bookService";
+
+    private final StartupTimeline startupTimeline = new StartupTimeline();
+
+    @Test
+    void recordsTheTimeToCreateABean() {
+        Object bean = new Object();
+
+        startupTimeline.postProcessBeforeInstantiation(Object.class, BEAN_NAME);
+        Object processedBean = startupTimeline.postProcessAfterInitialization(bean, BEAN_NAME);
+
+        assertThat(processedBean).isSameAs(bean);
+        assertThat(startupTimeline.getBeanTime(BEAN_NAME)).isPresent();
+    }
+
+    @Test
+    void stopsRecording_afterTheReport() {
+        startupTimeline.stopRecording();
+
+        startupTimeline.postProcessBeforeInstantiation(Object.class, BEAN_NAME);
+        startupTimeline.postProcessAfterInitialization(new Object(), BEAN_NAME);
+
+        assertThat(startupTimeline.getBeanTime(BEAN_NAME)).isEmpty();
+    }
+
+    @Test
+    void keepsThePhasesInOrder() {
+        startupTimeline.recordPhase("flyway", Duration.ofMillis(2));
+        startupTimeline.recordPhase("search-index", Duration.ofMillis(1));
+
+        assertThat(startupTimeline.getPhaseTimes()).containsKeys("flyway", "search-index");
+        assertThat(startupTimeline.getPhaseTimes().keySet()).containsExactly("flyway", "search-index");
+    }
+}
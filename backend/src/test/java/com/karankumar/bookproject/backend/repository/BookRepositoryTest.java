@@ -18,15 +18,23 @@
 package com.karankumar.bookproject.backend.repository;
 
 import com.karankumar.bookproject.annotations.DataJpaIntegrationTest;
+import com.karankumar.bookproject.backend.dto.BookDetails;
+import com.karankumar.bookproject.backend.dto.BookSummary;
 import com.karankumar.bookproject.backend.model.Author;
 import com.karankumar.bookproject.backend.model.Book;
 import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import com.karankumar.bookproject.backend.model.Publisher;
+import com.karankumar.bookproject.backend.model.Tag;
 import com.karankumar.bookproject.backend.model.account.User;
+import com.karankumar.bookproject.backend.repository.BookRepository.BookAndTitle;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
@@ -42,23 +50,33 @@ class BookRepositoryTest {
     private final AuthorRepository authorRepository;
     private final UserRepository userRepository;
     private final PredefinedShelfRepository predefinedShelfRepository;
+    private final TagRepository tagRepository;
+    private final PublisherRepository publisherRepository;
+    private final TestEntityManager entityManager;
     private Author author;
     private PredefinedShelf read;
+    private User user;
 
     @Autowired
     BookRepositoryTest(BookRepository bookRepository, AuthorRepository authorRepository,
                        UserRepository userRepository,
-                       PredefinedShelfRepository predefinedShelfRepository) {
+                       PredefinedShelfRepository predefinedShelfRepository,
+                       TagRepository tagRepository,
+                       PublisherRepository publisherRepository,
+                       TestEntityManager entityManager) {
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
         this.userRepository = userRepository;
         this.predefinedShelfRepository = predefinedShelfRepository;
+        this.tagRepository = tagRepository;
+        this.publisherRepository = publisherRepository;
+        this.entityManager = entityManager;
     }
 
     @BeforeEach
     void init() {
         bookRepository.deleteAll();
-        User user = getTestUser(userRepository);
+        user = getTestUser(userRepository);
         author = authorRepository.save(new Author("firstName lastName"));
         read = predefinedShelfRepository.save(
                 new PredefinedShelf(PredefinedShelf.ShelfName.READ, user)
@@ -89,8 +107,8 @@ class BookRepositoryTest {
         bookRepository.delete(book);
 
         // then
-        assertThat(bookRepository.findByTitleOrAuthor("firstName").size())
-                .isZero();
+        assertThat(bookRepository.findIdsByUserIdAndAuthorStartingWith(
+                user.getId(), "firstName", Pageable.unpaged())).isEmpty();
     }
 
     @Test
@@ -112,44 +130,173 @@ class BookRepositoryTest {
     }
 
     @Test
-    @Disabled // TODO: re-enable. This is disabled until implemented
+    void findAllBooksIncludesBooksWithoutTagsOrPublishers() {
+        assertThat(bookRepository.findAllBooks()).hasSize(1);
+    }
+
+    @Test
+    void fetchTagsAndPublishersInitialisesBothCollections() {
+        // given
+        Book book = new Book("tagged", author, read);
+        book.addTag(tagRepository.save(new Tag("tag1")));
+        book.addTag(tagRepository.save(new Tag("tag2")));
+        book.addPublisher(publisherRepository.save(new Publisher("publisher1")));
+        book.addPublisher(publisherRepository.save(new Publisher("publisher2")));
+        bookRepository.saveAndFlush(book);
+        entityManager.clear();
+
+        // when
+        List<Book> books = bookRepository.findAllBooks();
+        bookRepository.fetchTags(books);
+        bookRepository.fetchPublishers(books);
+
+        // then
+        Book actual = books.stream()
+                           .filter(b -> b.getTitle().equals("tagged"))
+                           .findFirst()
+                           .orElseThrow();
+        assertSoftly(softly -> {
+            softly.assertThat(books).hasSize(2);
+            softly.assertThat(Hibernate.isInitialized(actual.getTags())).isTrue();
+            softly.assertThat(Hibernate.isInitialized(actual.getPublishers())).isTrue();
+            softly.assertThat(actual.getTags()).hasSize(2);
+            softly.assertThat(actual.getPublishers()).hasSize(2);
+        });
+    }
+
+    @Test
+    void findSummariesAfterIdSeeksPastTheLastSeenId() {
+        // given
+        Book second = bookRepository.saveAndFlush(new Book("second", author, read));
+        Book third = bookRepository.saveAndFlush(new Book("third", author, read));
+
+        // when
+        List<BookSummary> firstPage = bookRepository.findSummariesAfterId(0L, PageRequest.of(0, 2));
+        List<BookSummary> nextPage = bookRepository.findSummariesAfterId(
+                firstPage.get(firstPage.size() - 1).getId(), PageRequest.of(0, 2)
+        );
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(firstPage).hasSize(2);
+            softly.assertThat(firstPage.get(1).getId()).isEqualTo(second.getId());
+            softly.assertThat(nextPage).extracting(BookSummary::getId)
+                  .containsExactly(third.getId());
+        });
+    }
+
+    @Test
     void allBooksFoundWhenNoFilterPassed() {
         // given
         int allBooks = bookRepository.findAll().size();
 
         // when
-        String WILDCARD = "%";
-        int actual = bookRepository.findByTitleOrAuthor(WILDCARD)
-                                   .size();
+        int actual = bookRepository.findIdsByUserIdAndTitleStartingWith(
+                user.getId(), "", Pageable.unpaged()).size();
 
         // then
         assertThat(actual).isEqualTo(allBooks);
     }
 
     @Test
-    @Disabled // TODO: re-enable. This is disabled until implemented
-    void canFindBookByTitleOrAuthor() {
+    void canFindBookByTitle_inTitleOrder() {
         // given
-        String title = "title";
+        Book anotherBook = bookRepository.saveAndFlush(new Book("anotherBook", author, read));
+        Book titleTwo = bookRepository.saveAndFlush(new Book("title two", author, read));
 
         // when
-        bookRepository.saveAndFlush(new Book("anotherBook", author, read));
+        List<BookAndTitle> actual = bookRepository.findIdsByUserIdAndTitleStartingWith(
+                user.getId(), "title", Pageable.unpaged());
 
         // then
-        assertThat(bookRepository.findByTitleOrAuthor(title).size()).isOne();
+        assertSoftly(softly -> {
+            softly.assertThat(actual).extracting(BookAndTitle::getTitle)
+                  .containsExactly("title", "title two");
+            softly.assertThat(actual).extracting(BookAndTitle::getBookId)
+                  .doesNotContain(anotherBook.getId())
+                  .endsWith(titleTwo.getId());
+        });
     }
 
     @Test
-    @Disabled // TODO: re-enable. This is disabled until implemented
-    void canFindBookByAuthor() {
+    void canFindBookByAnyOfTheAuthorsNames() {
         String firstName = "firstName";
         String lastName = "lastName";
 
         assertSoftly(softly -> {
-            softly.assertThat(bookRepository.findByTitleOrAuthor(firstName).size())
+            softly.assertThat(bookRepository.findIdsByUserIdAndAuthorStartingWith(
+                    user.getId(), firstName, Pageable.unpaged()).size())
                   .isOne();
-            softly.assertThat(bookRepository.findByTitleOrAuthor(lastName).size())
+            softly.assertThat(bookRepository.findIdsByUserIdAndAuthorStartingWith(
+                    user.getId(), lastName, Pageable.unpaged()).size())
                   .isOne();
+            softly.assertThat(bookRepository.findIdsByUserIdAndAuthorStartingWith(
+                    user.getId(), "Name", Pageable.unpaged()))
+                  .isEmpty();
+        });
+    }
+
+    @Test
+    void onlyFindTheGivenUsersBooks() {
+        // given
+        User otherUser = userRepository.save(User.builder()
+                                                 .email("other@user.user")
+                                                 .password("testPa$$123_Paf1")
+                                                 .build());
+        PredefinedShelf otherUsersShelf = predefinedShelfRepository.save(
+                new PredefinedShelf(PredefinedShelf.ShelfName.READ, otherUser)
+        );
+        bookRepository.saveAndFlush(new Book("title", author, otherUsersShelf));
+
+        // when
+        List<BookAndTitle> byTitle = bookRepository.findIdsByUserIdAndTitleStartingWith(
+                user.getId(), "title", Pageable.unpaged());
+        List<BookAndTitle> byAuthor = bookRepository.findIdsByUserIdAndAuthorStartingWith(
+                user.getId(), "lastName", Pageable.unpaged());
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(byTitle).hasSize(1);
+            softly.assertThat(byAuthor).hasSize(1);
+        });
+    }
+
+    @Test
+    void selectSummariesWithoutLoadingBooks() {
+        // given
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<BookSummary> summaries = bookRepository.findAllSummaries();
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(summaries).hasSize(1);
+            softly.assertThat(summaries.get(0).getTitle()).isEqualTo("title");
+            softly.assertThat(summaries.get(0).getAuthorName()).isEqualTo("firstName lastName");
+            softly.assertThat(summaries.get(0).getPredefinedShelf())
+                  .isEqualTo(PredefinedShelf.ShelfName.READ);
+            softly.assertThat(entityManager.getEntityManager().contains(author)).isFalse();
+        });
+    }
+
+    @Test
+    void selectTheDetailsOfABook() {
+        // given
+        Book book = bookRepository.findByTitleContainingIgnoreCase("title").get(0);
+        book.addTag(tagRepository.save(new Tag("favourite")));
+        bookRepository.saveAndFlush(book);
+
+        // when
+        BookDetails details = bookRepository.findDetailsById(book.getId()).orElseThrow();
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(details.getTitle()).isEqualTo("title");
+            softly.assertThat(details.getUserCreatedShelf()).isNull();
+            softly.assertThat(bookRepository.findTagNamesById(book.getId()))
+                  .containsExactly("favourite");
         });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+@DisplayName("BookIndex should")
+class BookIndexTest {
+    private static final long USER_ID = 1L;
+    private static final long OTHER_USER_ID = 2L;
+
+    @Test
+    void rankTitleMatchesAboveReviewMatches() {
+        // given
+        BookIndex bookIndex = new BookIndex();
+        bookIndex.put(1L, USER_ID, Map.of("dune", BookIndex.REVIEW_WEIGHT));
+        bookIndex.put(2L, USER_ID, Map.of("dune", BookIndex.TITLE_WEIGHT));
+
+        // when
+        assertThat(bookIndex.search(USER_ID, "Dune", 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void matchEveryWordOfTheQuery() {
+        // given
+        BookIndex bookIndex = new BookIndex();
+        bookIndex.put(1L, USER_ID, Map.of("children", 3f, "dune", 3f));
+        bookIndex.put(2L, USER_ID, Map.of("dune", 3f, "messiah", 3f));
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(bookIndex.search(USER_ID, "dune messiah", 10)).containsExactly(2L);
+            softly.assertThat(bookIndex.search(USER_ID, "dune mess", 10)).containsExactly(2L);
+            softly.assertThat(bookIndex.search(USER_ID, "dune emperor", 10)).isEmpty();
+        });
+    }
+
+    @Test
+    void rankExactMatchesAbovePrefixMatches() {
+        // given
+        BookIndex bookIndex = new BookIndex();
+        bookIndex.put(1L, USER_ID, Map.of("dunes", 3f));
+        bookIndex.put(2L, USER_ID, Map.of("dune", 3f));
+
+        // then
+        assertThat(bookIndex.search(USER_ID, "dune", 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void onlySearchTheUsersOwnBooks() {
+        // given
+        BookIndex bookIndex = new BookIndex();
+        bookIndex.put(1L, USER_ID, Map.of("dune", 3f));
+        bookIndex.put(2L, OTHER_USER_ID, Map.of("dune", 3f));
+
+        // then
+        assertThat(bookIndex.search(USER_ID, "dune", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void replaceTheTermsOfAReindexedBook() {
+        // given
+        BookIndex bookIndex = new BookIndex();
+        bookIndex.put(1L, USER_ID, Map.of("dune", 3f));
+
+        // when
+        bookIndex.put(1L, USER_ID, Map.of("emma", 3f));
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(bookIndex.search(USER_ID, "dune", 10)).isEmpty();
+            softly.assertThat(bookIndex.search(USER_ID, "emma", 10)).containsExactly(1L);
+            softly.assertThat(bookIndex.size()).isOne();
+        });
+    }
+
+    @Test
+    void readBackTheSameIndexThatWasWritten(@TempDir Path directory) throws IOException {
+        // given
+        BookIndex bookIndex = new BookIndex();
+        bookIndex.put(1L, USER_ID, Map.of("dune", 3f, "herbert", 2f));
+        bookIndex.put(2L, OTHER_USER_ID, Map.of("emma", 3f));
+        Path file = directory.resolve("books.idx");
+
+        // when
+        bookIndex.writeTo(file);
+        BookIndex readIndex = BookIndex.readFrom(file);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(readIndex.size()).isEqualTo(2);
+            softly.assertThat(readIndex.search(USER_ID, "herbert", 10)).containsExactly(1L);
+            softly.assertThat(readIndex.search(OTHER_USER_ID, "emma", 10)).containsExactly(2L);
+        });
+    }
+
+    @Test
+    void tokenizeWithoutCaseOrAccents() {
+        assertThat(TextAnalyzer.tokenize("Café Society: Über-Cool!"))
+                .containsExactly("cafe", "society", "uber", "cool");
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+@DisplayName("SuggestionIndex should")
+class SuggestionIndexTest {
+    private static final Suggestion DARKNESS =
+            new Suggestion("The Left Hand of Darkness", Suggestion.Type.TITLE);
+    private static final Suggestion DUNE = new Suggestion("Dune", Suggestion.Type.TITLE);
+    private static final Suggestion HERBERT =
+            new Suggestion("Frank Herbert", Suggestion.Type.AUTHOR);
+
+    @Test
+    void suggestByTheStartOfAnyWord() {
+        // given
+        SuggestionIndex suggestionIndex = new SuggestionIndex(10, 100);
+        suggestionIndex.add(DARKNESS);
+        suggestionIndex.add(DUNE);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(suggestionIndex.suggest("dark", 10)).containsExactly(DARKNESS);
+            softly.assertThat(suggestionIndex.suggest("hand of", 10)).containsExactly(DARKNESS);
+            softly.assertThat(suggestionIndex.suggest("Dú", 10)).containsExactly(DUNE);
+            softly.assertThat(suggestionIndex.suggest("hand dark", 10)).isEmpty();
+            softly.assertThat(suggestionIndex.suggest("arkness", 10)).isEmpty();
+        });
+    }
+
+    @Test
+    void suggestWhatTheMostBooksShareFirst() {
+        // given
+        SuggestionIndex suggestionIndex = new SuggestionIndex(10, 100);
+        Suggestion frankenstein = new Suggestion("Frankenstein", Suggestion.Type.TITLE);
+        suggestionIndex.add(frankenstein);
+        suggestionIndex.add(HERBERT);
+        suggestionIndex.add(HERBERT);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(suggestionIndex.suggest("f", 10))
+                  .containsExactly(HERBERT, frankenstein);
+            softly.assertThat(suggestionIndex.suggest("frank", 10))
+                  .containsExactly(HERBERT, frankenstein);
+            softly.assertThat(suggestionIndex.suggest("frank", 1)).containsExactly(HERBERT);
+        });
+    }
+
+    @Test
+    void onlyRemoveASuggestionOnceEveryBookHasRemovedIt() {
+        // given
+        SuggestionIndex suggestionIndex = new SuggestionIndex(10, 100);
+        suggestionIndex.add(HERBERT);
+        suggestionIndex.add(HERBERT);
+
+        // when
+        suggestionIndex.remove(HERBERT);
+
+        // then
+        assertThat(suggestionIndex.suggest("he", 10)).containsExactly(HERBERT);
+
+        // when
+        suggestionIndex.remove(HERBERT);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(suggestionIndex.suggest("he", 10)).isEmpty();
+            softly.assertThat(suggestionIndex.suggest("herbert", 10)).isEmpty();
+            softly.assertThat(suggestionIndex.size()).isZero();
+        });
+    }
+
+    @Test
+    void findTheNextBestSuggestionWhenABestOneIsRemoved() {
+        // given
+        SuggestionIndex suggestionIndex = new SuggestionIndex(1, 100);
+        suggestionIndex.add(DUNE);
+        suggestionIndex.add(DUNE);
+        suggestionIndex.add(DARKNESS);
+
+        // when
+        suggestionIndex.remove(DUNE);
+        suggestionIndex.remove(DUNE);
+
+        // then
+        assertThat(suggestionIndex.suggest("d", 10)).containsExactly(DARKNESS);
+    }
+
+    @Test
+    void notStoreMoreThanTheMaximumNumberOfSuggestions() {
+        // given
+        SuggestionIndex suggestionIndex = new SuggestionIndex(10, 1);
+        suggestionIndex.add(DUNE);
+
+        // when
+        Suggestion stored = suggestionIndex.add(HERBERT);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(stored).isNull();
+            softly.assertThat(suggestionIndex.size()).isOne();
+            softly.assertThat(suggestionIndex.suggest("herbert", 10)).isEmpty();
+        });
+    }
+
+    @Test
+    void matchPrefixesLongerThanTheKeys() {
+        // given
+        SuggestionIndex suggestionIndex = new SuggestionIndex(10, 100);
+        Suggestion longTitle = new Suggestion(
+                "A Very Long Title That Goes On And On Well Past The Keys", Suggestion.Type.TITLE);
+        suggestionIndex.add(longTitle);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(suggestionIndex.suggest("long title that goes on and on well", 10))
+                  .containsExactly(longTitle);
+            softly.assertThat(suggestionIndex.suggest("long title that goes on and on past", 10))
+                  .isEmpty();
+        });
+    }
+}
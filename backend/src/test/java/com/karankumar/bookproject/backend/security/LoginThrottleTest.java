@@ -0,0 +1,91 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.security;
+
+import com.google.common.base.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleTest {
+    private static final String USERNAME = "user@user.user";
+    private static final String IP_ADDRESS = "192.0.2.1";
+    private static final int USERNAME_BURST = 3;
+    private static final int IP_ADDRESS_BURST = 5;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoginThrottle underTest;
+
+    @BeforeEach
+    void setUp() {
+        LoginThrottleConfig config = new LoginThrottleConfig();
+        config.setUsernameBurst(USERNAME_BURST);
+        config.setUsernameAttemptsPerMinute(1);
+        config.setIpAddressBurst(IP_ADDRESS_BURST);
+        config.setIpAddressAttemptsPerMinute(1);
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        underTest = new LoginThrottle(config, meterRegistry, ticker);
+    }
+
+    @Test
+    void rejects_whenTheUsernameBurstIsUsedUp() {
+        for (int i = 0; i < USERNAME_BURST; i++) {
+            assertThat(underTest.tryAcquire(USERNAME, IP_ADDRESS)).isTrue();
+        }
+
+        assertThat(underTest.tryAcquire(USERNAME.toUpperCase(), IP_ADDRESS)).isFalse();
+        assertThat(meterRegistry.counter("login.throttled", "limit", "username").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void rejects_whenTheIpAddressBurstIsUsedUp() {
+        for (int i = 0; i < IP_ADDRESS_BURST; i++) {
+            assertThat(underTest.tryAcquire(USERNAME + i, IP_ADDRESS)).isTrue();
+        }
+
+        assertThat(underTest.tryAcquire("another@user.user", IP_ADDRESS)).isFalse();
+        assertThat(underTest.tryAcquire("another@user.user", "192.0.2.2")).isTrue();
+        assertThat(meterRegistry.counter("login.throttled", "limit", "ip-address").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void allowsAnotherAttempt_onceTheBucketHasRefilled() {
+        for (int i = 0; i < USERNAME_BURST; i++) {
+            underTest.tryAcquire(USERNAME, IP_ADDRESS);
+        }
+        assertThat(underTest.tryAcquire(USERNAME, IP_ADDRESS)).isFalse();
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(1));
+
+        assertThat(underTest.tryAcquire(USERNAME, IP_ADDRESS)).isTrue();
+        assertThat(underTest.tryAcquire(USERNAME, IP_ADDRESS)).isFalse();
+    }
+}
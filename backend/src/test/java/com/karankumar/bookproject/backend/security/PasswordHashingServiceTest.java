@@ -0,0 +1,74 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashingServiceTest {
+    private static final String PASSWORD = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaA1!";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingService underTest =
+            new PasswordHashingService(config(4), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void matches_anEncodedPassword() {
+        String encodedPassword = underTest.encode(PASSWORD);
+
+        assertThat(underTest.matches(PASSWORD, encodedPassword)).isTrue();
+        assertThat(underTest.matches("wrong" + PASSWORD, encodedPassword)).isFalse();
+    }
+
+    @Test
+    void recordsTheTimeSpentHashing() {
+        underTest.encode(PASSWORD);
+
+        assertThat(meterRegistry.get("password.hashing").tag("operation", "encode").timer().count())
+                .isOne();
+    }
+
+    @Test
+    void upgradesPasswords_hashedWithALowerStrength() {
+        String weakPassword = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        PasswordHashingService stronger = new PasswordHashingService(config(5), meterRegistry);
+        try {
+            assertThat(stronger.upgradeEncoding(weakPassword)).isTrue();
+            assertThat(underTest.upgradeEncoding(weakPassword)).isFalse();
+        } finally {
+            stronger.shutdown();
+        }
+    }
+
+    private static PasswordHashingConfig config(int strength) {
+        PasswordHashingConfig config = new PasswordHashingConfig();
+        config.setStrength(strength);
+        config.setWorkers(1);
+        config.setMaxQueued(1);
+        return config;
+    }
+}
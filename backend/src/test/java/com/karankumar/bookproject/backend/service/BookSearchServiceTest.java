@@ -0,0 +1,106 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import com.karankumar.bookproject.annotations.IntegrationTest;
+import com.karankumar.bookproject.backend.model.Author;
+import com.karankumar.bookproject.backend.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@DisplayName("BookSearchService should")
+class BookSearchServiceTest {
+    private final BookService bookService;
+    private final BookSearchService bookSearchService;
+    private final PredefinedShelfService predefinedShelfService;
+
+    @Autowired
+    BookSearchServiceTest(BookService bookService, BookSearchService bookSearchService,
+                          PredefinedShelfService predefinedShelfService) {
+        this.bookService = bookService;
+        this.bookSearchService = bookSearchService;
+        this.predefinedShelfService = predefinedShelfService;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        bookService.deleteAll();
+    }
+
+    @Test
+    void findASavedBookByItsTitleOrAuthor() {
+        // given
+        Book book = saveBook("The Left Hand of Darkness", "Ursula K. Le Guin");
+        saveBook("Dune", "Frank Herbert");
+
+        // then
+        assertThat(bookSearchService.search("darkness")).containsExactly(book.getId());
+        assertThat(bookSearchService.search("le guin")).containsExactly(book.getId());
+    }
+
+    @Test
+    void findTheBooksInOrderOfRelevance() {
+        // given
+        Book reviewed = saveBook("Children of Time", "Adrian Tchaikovsky");
+        reviewed.setBookReview("Better than Dune");
+        bookService.save(reviewed);
+        Book dune = saveBook("Dune", "Frank Herbert");
+
+        // when
+        List<Book> actual = bookService.findAll("dune");
+
+        // then
+        assertThat(actual).extracting(Book::getId).containsExactly(dune.getId(), reviewed.getId());
+    }
+
+    @Test
+    void notFindADeletedBook() {
+        // given
+        Book book = saveBook("Dune", "Frank Herbert");
+
+        // when
+        bookService.delete(book);
+
+        // then
+        assertThat(bookSearchService.search("dune")).isEmpty();
+    }
+
+    @Test
+    void findTheSameBooksAfterARebuild() {
+        // given
+        Book book = saveBook("Dune", "Frank Herbert");
+
+        // when
+        bookSearchService.rebuild();
+
+        // then
+        assertThat(bookSearchService.search("herbert")).containsExactly(book.getId());
+    }
+
+    private Book saveBook(String title, String author) {
+        Book book = new Book(title, new Author(author), predefinedShelfService.findReadShelf());
+        return bookService.save(book).orElseThrow();
+    }
+}
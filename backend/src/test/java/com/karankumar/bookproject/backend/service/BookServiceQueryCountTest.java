@@ -0,0 +1,70 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import com.karankumar.bookproject.annotations.IntegrationTest;
+import com.karankumar.bookproject.backend.model.Author;
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static com.karankumar.bookproject.util.QueryCountTestUtils.assertMaxQueries;
+import static com.karankumar.bookproject.util.QueryCountTestUtils.assertNoRepeatedQueries;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@DisplayName("BookService should")
+class BookServiceQueryCountTest {
+    private static final int BOOKS = 20;
+
+    private final BookService bookService;
+    private final PredefinedShelfService predefinedShelfService;
+
+    @Autowired
+    BookServiceQueryCountTest(BookService bookService,
+                              PredefinedShelfService predefinedShelfService) {
+        this.bookService = bookService;
+        this.predefinedShelfService = predefinedShelfService;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        bookService.deleteAll();
+        PredefinedShelf readShelf = predefinedShelfService.findReadShelf();
+        for (int i = 0; i < BOOKS; i++) {
+            bookService.save(new Book("Title " + i, new Author("Author " + i), readShelf));
+        }
+    }
+
+    @Test
+    void loadEveryBookWithoutAQueryPerBook() {
+        assertNoRepeatedQueries(BOOKS / 2, bookService::findAll);
+    }
+
+    @Test
+    void loadEveryBookInAFewQueries() {
+        List<Book> books = assertMaxQueries(BOOKS / 2, () -> bookService.findAll());
+
+        assertThat(books).hasSize(BOOKS);
+    }
+}
@@ -29,27 +29,42 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.List;
 import java.util.Optional;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class BookServiceTest {
     @Mock private BookRepository bookRepository;
+    @Mock private BookSearchService bookSearchService;
     private BookService bookService;
+    private UserService userService;
 
     @BeforeEach
     public void setUp() {
         AuthorService authorService = mock(AuthorService.class);
         PublisherService publisherService = mock(PublisherService.class);
-        bookService = new BookService(bookRepository, authorService, publisherService);
+        ReadingCounterService readingCounterService = mock(ReadingCounterService.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        ExportService exportService = mock(ExportService.class);
+        userService = mock(UserService.class);
+        bookService = new BookService(bookRepository, authorService, publisherService,
+                readingCounterService, bookSearchService, eventPublisher, exportService,
+                userService);
     }
 
     @Test
@@ -116,6 +131,24 @@ class BookServiceTest {
         assertThat(capturedBook).isEqualTo(book);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveAll_onlySavesBooksWithAuthorAndPredefinedShelf() {
+        // given
+        User user = User.builder().build();
+        PredefinedShelf predefinedShelf = new PredefinedShelf(PredefinedShelf.ShelfName.READ, user);
+        Book bookWithAuthor = new Book("title", new Author("test"), predefinedShelf);
+        Book bookWithoutAuthor = new Book("title2", null, predefinedShelf);
+
+        // when
+        bookService.saveAll(List.of(bookWithAuthor, bookWithoutAuthor));
+
+        // then
+        ArgumentCaptor<List<Book>> bookArgumentCaptor = ArgumentCaptor.forClass(List.class);
+        verify(bookRepository).saveAll(bookArgumentCaptor.capture());
+        assertThat(bookArgumentCaptor.getValue()).containsExactly(bookWithAuthor);
+    }
+
     @Test
     void canCount() {
         bookService.count();
@@ -141,7 +174,7 @@ class BookServiceTest {
     }
 
     @Test
-    void findAll_filtersByTitle_ifFilterIsNotNullOrEmpty() {
+    void findAll_searchesTheIndex_ifFilterIsNotNullOrEmpty() {
         // given
         String filter = "test";
 
@@ -149,7 +182,28 @@ class BookServiceTest {
         bookService.findAll(filter);
 
         // then
-        verify(bookRepository).findByTitleContainingIgnoreCase(filter);
+        verify(bookSearchService).search(filter);
+        verify(bookRepository, never()).findByTitleContainingIgnoreCase(filter);
+    }
+
+    @Test
+    void findAll_returnsBooksInOrderOfRelevance() {
+        // given
+        PredefinedShelf readShelf =
+                new PredefinedShelf(PredefinedShelf.ShelfName.READ, User.builder().build());
+        Book lessRelevant = new Book("less relevant", new Author("author"), readShelf);
+        ReflectionTestUtils.setField(lessRelevant, "id", 1L);
+        Book moreRelevant = new Book("more relevant", new Author("author"), readShelf);
+        ReflectionTestUtils.setField(moreRelevant, "id", 2L);
+        when(bookSearchService.search("relevant")).thenReturn(List.of(2L, 1L));
+        when(bookRepository.findReadOnlyBooksByIdIn(List.of(2L, 1L)))
+                .thenReturn(List.of(lessRelevant, moreRelevant));
+
+        // when
+        List<Book> actual = bookService.findAll("relevant");
+
+        // then
+        assertThat(actual).containsExactly(moreRelevant, lessRelevant);
     }
 
     @Test
@@ -164,9 +218,69 @@ class BookServiceTest {
         verify(bookRepository).deleteAll();
     }
 
-//    @Test
-//    void canFindByTitleOrAuthor() {
-//        bookService.findByTitleOrAuthor("test", "author");
-//        verify(bookRepository).findByTitleOrAuthor(anyString(), anyString());
-//    }
+    @Test
+    void findByTitleOrAuthor_mergesTheTitleAndAuthorMatches() {
+        // given
+        loggedInUserHasId(1L);
+        when(bookRepository.findIdsByUserIdAndTitleStartingWith(eq(1L), eq("Dune"),
+                any(Pageable.class)))
+                .thenReturn(List.of(bookAndTitle(1L, "Dune"), bookAndTitle(3L, "Dune Messiah"),
+                        bookAndTitle(5L, "Dune: House Atreides")));
+        when(bookRepository.findIdsByUserIdAndAuthorStartingWith(eq(1L), eq("Herbert"),
+                any(Pageable.class)))
+                .thenReturn(List.of(bookAndTitle(2L, "Children of Dune"),
+                        bookAndTitle(3L, "Dune Messiah"), bookAndTitle(6L, "God Emperor of Dune")));
+
+        // when
+        bookService.findByTitleOrAuthor("Dune", "Herbert", PageRequest.of(1, 2));
+
+        // then
+        verify(bookRepository)
+                .findIdsByUserIdAndTitleStartingWith(1L, "Dune", PageRequest.of(0, 4));
+        verify(bookRepository).findReadOnlyBooksByIdIn(List.of(3L, 5L));
+    }
+
+    @Test
+    void findByTitleOrAuthor_escapesLikeWildcards() {
+        // given
+        loggedInUserHasId(1L);
+
+        // when
+        bookService.findByTitleOrAuthor("100%_true!", null);
+
+        // then
+        verify(bookRepository)
+                .findIdsByUserIdAndTitleStartingWith(1L, "100!%!_true!!", Pageable.unpaged());
+        verify(bookRepository, never()).findIdsByUserIdAndAuthorStartingWith(any(), any(), any());
+    }
+
+    @Test
+    void mergeByTitle_ordersByTitleIgnoringCaseWithoutDuplicates() {
+        List<Long> merged = BookService.mergeByTitle(
+                List.of(bookAndTitle(4L, "a"), bookAndTitle(1L, "C")),
+                List.of(bookAndTitle(3L, "B"), bookAndTitle(1L, "C"), bookAndTitle(2L, "c"))
+        );
+
+        assertThat(merged).containsExactly(4L, 3L, 1L, 2L);
+    }
+
+    private void loggedInUserHasId(Long id) {
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(id);
+        when(userService.getCurrentUser()).thenReturn(user);
+    }
+
+    private static BookRepository.BookAndTitle bookAndTitle(Long bookId, String title) {
+        return new BookRepository.BookAndTitle() {
+            @Override
+            public Long getBookId() {
+                return bookId;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+        };
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeVersionServiceTest {
+    private static final Long USER_ID = 1L;
+    private static final Long OTHER_USER_ID = 2L;
+
+    private ChangeVersionService changeVersionService;
+
+    @BeforeEach
+    void setUp() {
+        changeVersionService = new ChangeVersionService();
+    }
+
+    @Test
+    void tagChanges_whenUserChanges() {
+        String tag = changeVersionService.getTag(USER_ID);
+        String tagForAllUsers = changeVersionService.getTagForAllUsers();
+
+        changeVersionService.markChanged(USER_ID);
+
+        assertThat(changeVersionService.getTag(USER_ID)).isNotEqualTo(tag);
+        assertThat(changeVersionService.getTagForAllUsers()).isNotEqualTo(tagForAllUsers);
+    }
+
+    @Test
+    void tagDoesNotChange_whenAnotherUserChanges() {
+        String tag = changeVersionService.getTag(USER_ID);
+
+        changeVersionService.markChanged(OTHER_USER_ID);
+
+        assertThat(changeVersionService.getTag(USER_ID)).isEqualTo(tag);
+        assertThat(changeVersionService.getTag(OTHER_USER_ID)).isNotEqualTo(tag);
+    }
+
+    @Test
+    void everyTagChanges_whenAllUsersChange() {
+        String tag = changeVersionService.getTag(USER_ID);
+        String otherTag = changeVersionService.getTag(OTHER_USER_ID);
+
+        changeVersionService.markAllChanged();
+
+        assertThat(changeVersionService.getTag(USER_ID)).isNotEqualTo(tag);
+        assertThat(changeVersionService.getTag(OTHER_USER_ID)).isNotEqualTo(otherTag);
+    }
+
+    @Test
+    void tagsDiffer_afterRestart() {
+        assertThat(new ChangeVersionService().getTag(USER_ID))
+                .isNotEqualTo(changeVersionService.getTag(USER_ID));
+    }
+
+    @Test
+    void onBookChanged_changesEveryTag_whenAllBooksAreDeleted() {
+        String tag = changeVersionService.getTag(USER_ID);
+
+        changeVersionService.onBookChanged(BookChangedEvent.allDeleted());
+
+        assertThat(changeVersionService.getTag(USER_ID)).isNotEqualTo(tag);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.karankumar.bookproject.annotations.IntegrationTest;
+import com.karankumar.bookproject.backend.model.Author;
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import com.karankumar.bookproject.backend.model.account.User;
+import com.karankumar.bookproject.backend.repository.UserRepository;
+import com.karankumar.bookproject.backend.statistics.util.StatisticTestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+@IntegrationTest
+@DisplayName("ExportService should")
+class ExportServiceTest {
+    private final ExportService exportService;
+    private final BookService bookService;
+    private final PredefinedShelfService predefinedShelfService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    ExportServiceTest(ExportService exportService, BookService bookService,
+                      PredefinedShelfService predefinedShelfService,
+                      UserRepository userRepository) {
+        this.exportService = exportService;
+        this.bookService = bookService;
+        this.predefinedShelfService = predefinedShelfService;
+        this.userRepository = userRepository;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        StatisticTestUtils.populateReadBooks(bookService, predefinedShelfService);
+    }
+
+    @Test
+    void exportEveryBookAsJson() throws IOException {
+        // given
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // when
+        long booksWritten = exportService.exportBooks(outputStream, ExportService.Format.JSON);
+
+        // then
+        JsonNode books = objectMapper.readTree(outputStream.toByteArray())
+                                     .get(ExportService.ROOT_NAME);
+        assertSoftly(softly -> {
+            softly.assertThat(booksWritten).isEqualTo(bookService.count());
+            softly.assertThat(books.size()).isEqualTo(booksWritten);
+            softly.assertThat(books.get(0).get("title").asText()).isNotBlank();
+            softly.assertThat(books.get(0).get("author").get("fullName").asText()).isNotBlank();
+        });
+    }
+
+    @Test
+    void exportOneBookPerLineAsNdjson() throws IOException {
+        // given
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // when
+        long booksWritten = exportService.exportBooks(outputStream, ExportService.Format.NDJSON);
+
+        // then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        JsonNode firstBook = objectMapper.readTree(lines[0]);
+        assertSoftly(softly -> {
+            softly.assertThat(booksWritten).isEqualTo(bookService.count());
+            softly.assertThat(lines).hasSize((int) booksWritten);
+            softly.assertThat(firstBook.get("title").asText()).isNotBlank();
+        });
+    }
+
+    @Test
+    void onlyExportTheBooksOfTheLoggedInUser() throws IOException {
+        // given
+        long loggedInUsersBooks = bookService.count();
+        User otherUser = userRepository.save(User.builder()
+                                                 .email("other@user.user")
+                                                 .password("testPa$$123_Paf1")
+                                                 .build());
+        PredefinedShelf otherUsersShelf =
+                predefinedShelfService.createPredefinedShelvesIfAbsent(otherUser).get(0);
+        bookService.save(new Book("Another user's book", new Author("Author"), otherUsersShelf));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // when
+        long booksWritten = exportService.exportBooks(outputStream, ExportService.Format.NDJSON);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(booksWritten).isEqualTo(loggedInUsersBooks);
+            softly.assertThat(outputStream.toString(StandardCharsets.UTF_8))
+                  .doesNotContain("Another user's book");
+        });
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.karankumar.bookproject.backend.service;
+
+import com.karankumar.bookproject.annotations.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+@IntegrationTest
+@DisplayName("ImportJobService should")
+class ImportJobServiceTest {
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private final ImportJobService importJobService;
+    private final BookService bookService;
+
+    @Autowired
+    ImportJobServiceTest(ImportJobService importJobService, BookService bookService) {
+        this.importJobService = importJobService;
+        this.bookService = bookService;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        bookService.deleteAll();
+    }
+
+    @Test
+    @DisplayName("run a submitted import in the background and report its progress")
+    void runSubmittedImport() throws IOException, InterruptedException {
+        // given
+        InputStream inputStream = Thread.currentThread()
+                                        .getContextClassLoader()
+                                        .getResourceAsStream("goodreadsBooksImportSample.csv");
+
+        // when
+        ImportJob job = importJobService.submitGoodreadsCsv(inputStream);
+        awaitFinished(job);
+
+        // then
+        ImportProgress progress = job.getProgress();
+        assertSoftly(softly -> {
+            softly.assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+            softly.assertThat(progress.getRowsParsed()).isEqualTo(559);
+            softly.assertThat(progress.getBooksSaved() + progress.getRowsRejected())
+                  .isEqualTo(progress.getRowsParsed());
+            softly.assertThat(job.getRowsPerSecond()).isPositive();
+            softly.assertThat(importJobService.findForLoggedInUser(job.getId())).contains(job);
+        });
+    }
+
+    @Test
+    void notFindUnknownJob() {
+        assertThat(importJobService.findForLoggedInUser("unknown")).isEmpty();
+    }
+
+    @Test
+    void notRunJobCancelledBeforeItStarted() {
+        // given
+        ImportJob job = new ImportJob("user@user.user");
+
+        // when
+        job.cancel();
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(job.start()).isFalse();
+            softly.assertThat(job.getStatus()).isEqualTo(ImportJob.Status.CANCELLED);
+        });
+    }
+
+    private void awaitFinished(ImportJob job) throws InterruptedException {
+        Instant deadline = Instant.now().plus(TIMEOUT);
+        while (job.getStatus() == ImportJob.Status.QUEUED
+                || job.getStatus() == ImportJob.Status.RUNNING) {
+            assertThat(Instant.now()).isBefore(deadline);
+            Thread.sleep(100);
+        }
+    }
+}
@@ -19,6 +19,7 @@ package com.karankumar.bookproject.backend.service;
 
 import com.karankumar.bookproject.annotations.IntegrationTest;
 import com.karankumar.bookproject.backend.dto.GoodreadsBookImport;
+import com.karankumar.bookproject.backend.dto.ImportResult;
 import com.karankumar.bookproject.backend.model.Book;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -27,11 +28,14 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
 
 @IntegrationTest
 @DisplayName("ImportService should")
@@ -80,6 +84,28 @@ class ImportServiceTest {
         return goodreadsBookImport;
     }
 
+    @Test
+    @DisplayName("reuse an author whose name only differs in case and whitespace")
+    void reuseAuthorWithSameNormalisedName() {
+        // given
+        List<GoodreadsBookImport> goodreadsBookImports = List.of(
+                createGoodreadsImport("Blink", "Malcolm Gladwell", "read"),
+                createGoodreadsImport("Outliers", " malcolm   GLADWELL ", "to-read")
+        );
+
+        // when
+        List<Book> savedBooks = importService.importGoodreadsBooks(goodreadsBookImports);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(savedBooks).hasSize(2);
+            softly.assertThat(savedBooks.get(0).getAuthor())
+                  .isSameAs(savedBooks.get(1).getAuthor());
+            softly.assertThat(savedBooks.get(0).getAuthor().getFullName())
+                  .isEqualTo("Malcolm Gladwell");
+        });
+    }
+
     @Test
     void returnEmptyListForEmptyImport() {
         // given
@@ -142,4 +168,66 @@ class ImportServiceTest {
         // then
         assertThat(savedBooks).isEmpty();
     }
+
+    @Test
+    @DisplayName("stream a Goodreads CSV export and save every valid row")
+    void streamGoodreadsCsv() throws IOException {
+        // given
+        InputStream inputStream = Thread.currentThread()
+                                        .getContextClassLoader()
+                                        .getResourceAsStream("goodreadsBooksImportSample.csv");
+
+        // when
+        ImportResult importResult = importService.importGoodreadsCsv(inputStream);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(importResult.getRowsParsed()).isEqualTo(559);
+            softly.assertThat(importResult.getBooksSaved()).isPositive();
+            softly.assertThat(importResult.getBooksSaved() + importResult.getRowsRejected())
+                  .isEqualTo(importResult.getRowsParsed());
+            softly.assertThat(bookService.count())
+                  .isEqualTo((long) importResult.getBooksSaved());
+        });
+    }
+
+    @Test
+    void countRejectedRowsWhenStreaming() {
+        // given
+        List<GoodreadsBookImport> goodreadsBookImports = List.of(
+                createGoodreadsImport("Thinking, Fast and Slow", "Daniel Kahneman", "read"),
+                createGoodreadsImport("", "Steven Pinker", "read")
+        );
+
+        // when
+        ImportResult importResult =
+                importService.importGoodreadsBooks(goodreadsBookImports.iterator());
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(importResult.getRowsParsed()).isEqualTo(2);
+            softly.assertThat(importResult.getBooksSaved()).isOne();
+            softly.assertThat(importResult.getRowsRejected()).isOne();
+        });
+    }
+
+    @Test
+    void stopWhenCancelled() {
+        // given
+        List<GoodreadsBookImport> goodreadsBookImports = List.of(
+                createGoodreadsImport("Thinking, Fast and Slow", "Daniel Kahneman", "read")
+        );
+        ImportProgress progress = new ImportProgress();
+        progress.cancel();
+
+        // when
+        ImportResult importResult =
+                importService.importGoodreadsBooks(goodreadsBookImports.iterator(), progress);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(importResult.getRowsParsed()).isZero();
+            softly.assertThat(bookService.count()).isZero();
+        });
+    }
 }
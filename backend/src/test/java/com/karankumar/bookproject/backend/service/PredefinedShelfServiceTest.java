@@ -17,13 +17,10 @@
 
 package com.karankumar.bookproject.backend.service;
 
+import com.google.common.collect.Iterables;
 import com.karankumar.bookproject.backend.model.PredefinedShelf;
 import com.karankumar.bookproject.backend.model.account.User;
-import com.karankumar.bookproject.backend.repository.AuthorRepository;
-import com.karankumar.bookproject.backend.repository.BookRepository;
 import com.karankumar.bookproject.backend.repository.PredefinedShelfRepository;
-import com.karankumar.bookproject.backend.repository.PublisherRepository;
-import com.karankumar.bookproject.backend.repository.TagRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -31,12 +28,15 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
@@ -51,20 +51,9 @@ class PredefinedShelfServiceTest {
 
     @BeforeEach
     void setUp() {
-        BookRepository bookRepository = mock(BookRepository.class);
-        AuthorRepository authorRepository = mock(AuthorRepository.class);
         predefinedShelfRepository = mock(PredefinedShelfRepository.class);
-        TagRepository tagRepository = mock(TagRepository.class);
         userService = mock(UserService.class);
-        PublisherRepository publisherRepository = mock(PublisherRepository.class);
-        underTest = new PredefinedShelfService(
-                bookRepository,
-                authorRepository,
-                predefinedShelfRepository,
-                tagRepository,
-                userService,
-                publisherRepository
-        );
+        underTest = new PredefinedShelfService(predefinedShelfRepository, userService);
     }
 
     @Test
@@ -174,6 +163,35 @@ class PredefinedShelfServiceTest {
         );
     }
 
+    @Test
+    void createPredefinedShelvesIfAbsent_createsEveryPredefinedShelf() {
+        // given
+        User user = User.builder().build();
+        given(predefinedShelfRepository.countAllByUser(user)).willReturn(0);
+
+        // when
+        underTest.createPredefinedShelvesIfAbsent(user);
+
+        // then
+        verify(predefinedShelfRepository).saveAll(argThat(shelves ->
+                Iterables.size(shelves) == PredefinedShelf.ShelfName.values().length));
+    }
+
+    @Test
+    void createPredefinedShelvesIfAbsent_doesNothing_ifUserHasShelves() {
+        // given
+        User user = User.builder().build();
+        given(predefinedShelfRepository.countAllByUser(user))
+                .willReturn(PredefinedShelf.ShelfName.values().length);
+
+        // when
+        List<PredefinedShelf> created = underTest.createPredefinedShelvesIfAbsent(user);
+
+        // then
+        assertThat(created).isEmpty();
+        verify(predefinedShelfRepository, never()).saveAll(anyList());
+    }
+
     @Test
     void canCount() {
         underTest.count();
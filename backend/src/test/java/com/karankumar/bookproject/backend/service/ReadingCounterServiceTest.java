@@ -0,0 +1,169 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import com.karankumar.bookproject.annotations.IntegrationTest;
+import com.karankumar.bookproject.backend.model.Author;
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.model.PredefinedShelf;
+import com.karankumar.bookproject.backend.model.account.User;
+import com.karankumar.bookproject.backend.repository.BookRepository;
+import com.karankumar.bookproject.backend.repository.ReadingCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.karankumar.bookproject.backend.model.ReadingGoal.GoalType.BOOKS;
+import static com.karankumar.bookproject.backend.model.ReadingGoal.GoalType.PAGES;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@IntegrationTest
+@DisplayName("ReadingCounterService should")
+class ReadingCounterServiceTest {
+    private final ReadingCounterService readingCounterService;
+    private final BookService bookService;
+    private final PredefinedShelfService predefinedShelfService;
+
+    private PredefinedShelf readShelf;
+
+    @Autowired
+    ReadingCounterServiceTest(ReadingCounterService readingCounterService,
+                              BookService bookService,
+                              PredefinedShelfService predefinedShelfService) {
+        this.readingCounterService = readingCounterService;
+        this.bookService = bookService;
+        this.predefinedShelfService = predefinedShelfService;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        bookService.deleteAll();
+        readShelf = predefinedShelfService.findReadShelf();
+    }
+
+    @Test
+    void onlyCountBooksFinishedThisYearInTheReadShelf() {
+        // given
+        LocalDate today = LocalDate.now();
+        saveBook("Counted", readShelf, today, 300);
+        saveBook("Counted without pages", readShelf, today, null);
+        saveBook("Finished last year", readShelf, today.minusYears(1), 500);
+        saveBook("Not finished", readShelf, null, 700);
+        saveBook("Not read", predefinedShelfService.findToReadShelf(), today, 900);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(readingCounterService.howManyReadThisYear(BOOKS)).isEqualTo(2);
+            softly.assertThat(readingCounterService.howManyReadThisYear(PAGES)).isEqualTo(300);
+        });
+    }
+
+    @Test
+    void updateTheCountsWhenABookIsChanged() {
+        // given
+        Book book = saveBook("Book", readShelf, LocalDate.now(), 300);
+
+        // when
+        book.setNumberOfPages(250);
+        book = bookService.save(book).orElseThrow();
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(readingCounterService.howManyReadThisYear(BOOKS)).isEqualTo(1);
+            softly.assertThat(readingCounterService.howManyReadThisYear(PAGES)).isEqualTo(250);
+        });
+
+        // when
+        book.setPredefinedShelf(predefinedShelfService.findReadingShelf());
+        bookService.save(book);
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(readingCounterService.howManyReadThisYear(BOOKS)).isZero();
+            softly.assertThat(readingCounterService.howManyReadThisYear(PAGES)).isZero();
+        });
+    }
+
+    @Test
+    void rebuildTheSameCounts() {
+        // given
+        saveBook("First", readShelf, LocalDate.now(), 300);
+        saveBook("Second", readShelf, LocalDate.now(), 200);
+        int booksRead = readingCounterService.howManyReadThisYear(BOOKS);
+        int pagesRead = readingCounterService.howManyReadThisYear(PAGES);
+
+        // when
+        readingCounterService.rebuild();
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(readingCounterService.howManyReadThisYear(BOOKS))
+                  .isEqualTo(booksRead)
+                  .isEqualTo(2);
+            softly.assertThat(readingCounterService.howManyReadThisYear(PAGES))
+                  .isEqualTo(pagesRead)
+                  .isEqualTo(500);
+        });
+    }
+
+    @Test
+    void addToTheCounterOfAConcurrentTransaction_ifItWasCreatedFirst() {
+        // given
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(1L);
+        Book book = new Book("Book", new Author("Joe Bloggs"),
+                new PredefinedShelf(PredefinedShelf.ShelfName.READ, user));
+        book.setDateFinishedReading(LocalDate.now());
+        book.setNumberOfPages(300);
+        int year = LocalDate.now().getYear();
+
+        ReadingCounterRepository counterRepository = mock(ReadingCounterRepository.class);
+        when(counterRepository.increment(1L, year, 1, 300)).thenReturn(0, 1);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(anyString(), (Object[]) any()))
+                .thenThrow(new DuplicateKeyException("reading_counter"));
+        ReadingCounterService underTest = new ReadingCounterService(counterRepository,
+                mock(BookRepository.class), mock(UserService.class), jdbcTemplate);
+
+        // when
+        underTest.update(List.of(), List.of(book));
+
+        // then
+        verify(counterRepository, times(2)).increment(1L, year, 1, 300);
+    }
+
+    private Book saveBook(String title, PredefinedShelf shelf, LocalDate dateFinishedReading,
+                          Integer numberOfPages) {
+        Book book = new Book(title, new Author("Joe Bloggs"), shelf);
+        book.setDateFinishedReading(dateFinishedReading);
+        book.setNumberOfPages(numberOfPages);
+        return bookService.save(book).orElseThrow();
+    }
+}
@@ -39,7 +39,7 @@ class ReadingGoalServiceTest {
     @BeforeEach
     void setUp() {
         readingGoalRepository = mock(ReadingGoalRepository.class);
-        underTest = new ReadingGoalService(readingGoalRepository);
+        underTest = new ReadingGoalService(readingGoalRepository, new ChangeVersionService());
     }
 
     @Test
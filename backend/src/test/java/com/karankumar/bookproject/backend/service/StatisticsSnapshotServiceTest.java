@@ -0,0 +1,195 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import com.karankumar.bookproject.annotations.IntegrationTest;
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.repository.BookRepository;
+import com.karankumar.bookproject.backend.statistics.PageStatistics;
+import com.karankumar.bookproject.backend.statistics.RatingStatistics;
+import com.karankumar.bookproject.backend.statistics.StatisticsSnapshot;
+import com.karankumar.bookproject.backend.statistics.YearStatistics;
+import com.karankumar.bookproject.backend.statistics.util.StatisticTestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@IntegrationTest
+@DisplayName("StatisticsSnapshotService should")
+class StatisticsSnapshotServiceTest {
+    private final BookService bookService;
+    private final PredefinedShelfService predefinedShelfService;
+    private final StatisticsSnapshotService statisticsSnapshotService;
+    private final UserService userService;
+    private final BookRepository bookRepository;
+
+    @Autowired
+    StatisticsSnapshotServiceTest(BookService bookService,
+                                  PredefinedShelfService predefinedShelfService,
+                                  StatisticsSnapshotService statisticsSnapshotService,
+                                  UserService userService,
+                                  BookRepository bookRepository) {
+        this.bookService = bookService;
+        this.predefinedShelfService = predefinedShelfService;
+        this.statisticsSnapshotService = statisticsSnapshotService;
+        this.userService = userService;
+        this.bookRepository = bookRepository;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        StatisticTestUtils.populateReadBooks(bookService, predefinedShelfService);
+    }
+
+    @Test
+    void giveTheSameFiguresAsTheStatisticsClasses() {
+        // given
+        PageStatistics pageStatistics = new PageStatistics(predefinedShelfService);
+        RatingStatistics ratingStatistics = new RatingStatistics(predefinedShelfService);
+        YearStatistics yearStatistics = new YearStatistics(predefinedShelfService);
+
+        // when
+        StatisticsSnapshot snapshot = statisticsSnapshotService.getSnapshotForLoggedInUser();
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(snapshot.findMostReadGenre())
+                  .contains(StatisticTestUtils.MOST_READ_BOOK_GENRE);
+            softly.assertThat(snapshot.findMostLikedGenre())
+                  .contains(StatisticTestUtils.MOST_LIKED_BOOK_GENRE);
+            softly.assertThat(snapshot.findLeastLikedGenre())
+                  .contains(StatisticTestUtils.LEAST_LIKED_BOOK_GENRE);
+            softly.assertThat(snapshot.findBookWithMostPages().map(Book::getTitle))
+                  .isEqualTo(pageStatistics.findBookWithMostPages().map(Book::getTitle));
+            softly.assertThat(snapshot.calculateAveragePageLength())
+                  .isEqualTo(pageStatistics.calculateAveragePageLength());
+            softly.assertThat(snapshot.findMostLikedBook().map(Book::getTitle))
+                  .isEqualTo(ratingStatistics.findMostLikedBook().map(Book::getTitle));
+            softly.assertThat(snapshot.findLeastLikedBook().map(Book::getTitle))
+                  .isEqualTo(ratingStatistics.findLeastLikedBook().map(Book::getTitle));
+            softly.assertThat(snapshot.calculateAverageRatingGiven())
+                  .isEqualTo(ratingStatistics.calculateAverageRatingGiven());
+            softly.assertThat(snapshot.findMostLikedBookThisYear().map(Book::getTitle))
+                  .isEqualTo(yearStatistics.findMostLikedBookThisYear().map(Book::getTitle));
+            softly.assertThat(snapshot.findLeastLikedBookThisYear().map(Book::getTitle))
+                  .isEqualTo(yearStatistics.findLeastLikedBookThisYear().map(Book::getTitle));
+            softly.assertThat(snapshot.calculateAverageRatingGivenThisYear())
+                  .isEqualTo(yearStatistics.calculateAverageRatingGivenThisYear());
+        });
+    }
+
+    @Test
+    void giveTheSameFiguresWhenAggregatingInTheDatabase() {
+        // given
+        StatisticsConfig statisticsConfig = new StatisticsConfig();
+        statisticsConfig.setMode(StatisticsConfig.Mode.DATABASE);
+        StatisticsSnapshotService databaseSnapshotService = new StatisticsSnapshotService(
+                predefinedShelfService, userService, bookRepository, statisticsConfig,
+                new SimpleMeterRegistry()
+        );
+        StatisticsSnapshot inMemory = statisticsSnapshotService.getSnapshotForLoggedInUser();
+
+        // when
+        StatisticsSnapshot aggregated = databaseSnapshotService.getSnapshotForLoggedInUser();
+
+        // then
+        assertSoftly(softly -> {
+            softly.assertThat(aggregated.findMostReadGenre())
+                  .isEqualTo(inMemory.findMostReadGenre());
+            softly.assertThat(aggregated.findMostLikedGenre())
+                  .isEqualTo(inMemory.findMostLikedGenre());
+            softly.assertThat(aggregated.findLeastLikedGenre())
+                  .isEqualTo(inMemory.findLeastLikedGenre());
+            softly.assertThat(aggregated.findBookWithMostPages().map(Book::getTitle))
+                  .isEqualTo(inMemory.findBookWithMostPages().map(Book::getTitle));
+            softly.assertThat(aggregated.calculateAveragePageLength())
+                  .isEqualTo(inMemory.calculateAveragePageLength());
+            softly.assertThat(aggregated.findMostLikedBook().map(Book::getTitle))
+                  .isEqualTo(inMemory.findMostLikedBook().map(Book::getTitle));
+            softly.assertThat(aggregated.findLeastLikedBook().map(Book::getTitle))
+                  .isEqualTo(inMemory.findLeastLikedBook().map(Book::getTitle));
+            softly.assertThat(aggregated.calculateAverageRatingGiven())
+                  .isEqualTo(inMemory.calculateAverageRatingGiven());
+            softly.assertThat(aggregated.findMostLikedBookThisYear().map(Book::getTitle))
+                  .isEqualTo(inMemory.findMostLikedBookThisYear().map(Book::getTitle));
+            softly.assertThat(aggregated.findLeastLikedBookThisYear().map(Book::getTitle))
+                  .isEqualTo(inMemory.findLeastLikedBookThisYear().map(Book::getTitle));
+            softly.assertThat(aggregated.calculateAverageRatingGivenThisYear())
+                  .isEqualTo(inMemory.calculateAverageRatingGivenThisYear());
+        });
+    }
+
+    @Test
+    void reuseTheSnapshotWhenNoBooksHaveChanged() {
+        StatisticsSnapshot first = statisticsSnapshotService.getSnapshotForLoggedInUser();
+        StatisticsSnapshot second = statisticsSnapshotService.getSnapshotForLoggedInUser();
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void recomputeTheSnapshotWhenABookIsDeleted() {
+        // given
+        StatisticsSnapshot before = statisticsSnapshotService.getSnapshotForLoggedInUser();
+
+        // when
+        StatisticTestUtils.deleteBook(StatisticTestUtils.getBookWithHighestRating());
+        StatisticsSnapshot after = statisticsSnapshotService.getSnapshotForLoggedInUser();
+
+        // then
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.findMostLikedBook().map(Book::getTitle))
+                .isNotEqualTo(before.findMostLikedBook().map(Book::getTitle));
+    }
+
+    @Test
+    void cacheTheSnapshotWhenAnotherUsersBookChangesWhileComputing() {
+        // given
+        Long otherUserId = userService.getCurrentUser().getId() + 1;
+        BookChangedEvent otherUsersBookChanged = mock(BookChangedEvent.class);
+        when(otherUsersBookChanged.findUserId()).thenReturn(Optional.of(otherUserId));
+        StatisticsSnapshotService[] underTest = new StatisticsSnapshotService[1];
+        StatisticsConfig statisticsConfig = new StatisticsConfig() {
+            @Override
+            public Mode getMode() {
+                // the mode is read once the snapshot has started to be computed
+                underTest[0].onBookChanged(otherUsersBookChanged);
+                return super.getMode();
+            }
+        };
+        statisticsConfig.setMode(StatisticsConfig.Mode.DATABASE);
+        underTest[0] = new StatisticsSnapshotService(predefinedShelfService, userService,
+                bookRepository, statisticsConfig, new SimpleMeterRegistry());
+
+        // when
+        StatisticsSnapshot first = underTest[0].getSnapshotForLoggedInUser();
+        StatisticsSnapshot second = underTest[0].getSnapshotForLoggedInUser();
+
+        // then
+        assertThat(second).isSameAs(first);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.service;
+
+import com.karankumar.bookproject.annotations.IntegrationTest;
+import com.karankumar.bookproject.backend.model.Author;
+import com.karankumar.bookproject.backend.model.Book;
+import com.karankumar.bookproject.backend.search.Suggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@DisplayName("SuggestionService should")
+class SuggestionServiceTest {
+    private static final Suggestion DUNE = new Suggestion("Dune", Suggestion.Type.TITLE);
+    private static final Suggestion DUNE_MESSIAH =
+            new Suggestion("Dune Messiah", Suggestion.Type.TITLE);
+    private static final Suggestion HERBERT =
+            new Suggestion("Frank Herbert", Suggestion.Type.AUTHOR);
+
+    private final BookService bookService;
+    private final SuggestionService suggestionService;
+    private final PredefinedShelfService predefinedShelfService;
+
+    @Autowired
+    SuggestionServiceTest(BookService bookService, SuggestionService suggestionService,
+                          PredefinedShelfService predefinedShelfService) {
+        this.bookService = bookService;
+        this.suggestionService = suggestionService;
+        this.predefinedShelfService = predefinedShelfService;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        bookService.deleteAll();
+    }
+
+    @Test
+    void suggestTheTitlesAndAuthorsOfSavedBooks() {
+        // given
+        saveBook("Dune", "Frank Herbert");
+        suggestionService.suggest("d", 10);
+
+        // when
+        saveBook("Dune Messiah", "Frank Herbert");
+
+        // then
+        assertThat(suggestionService.suggest("d", 10)).containsExactly(DUNE, DUNE_MESSIAH);
+        assertThat(suggestionService.suggest("herb", 10)).containsExactly(HERBERT);
+    }
+
+    @Test
+    void notSuggestADeletedBook() {
+        // given
+        Book book = saveBook("Dune", "Frank Herbert");
+        suggestionService.suggest("d", 10);
+
+        // when
+        bookService.delete(book);
+
+        // then
+        assertThat(suggestionService.suggest("d", 10)).isEmpty();
+        assertThat(suggestionService.suggest("frank", 10)).isEmpty();
+    }
+
+    private Book saveBook(String title, String author) {
+        Book book = new Book(title, new Author(author), predefinedShelfService.findReadShelf());
+        return bookService.save(book).orElseThrow();
+    }
+}
@@ -49,7 +49,8 @@ class UserCreatedShelfServiceTest {
     @BeforeEach
     void setUp() {
         UserService userService = mock(UserService.class);
-        userCreatedShelfService = new UserCreatedShelfService(userCreatedShelfRepository, userService);
+        userCreatedShelfService = new UserCreatedShelfService(userCreatedShelfRepository, userService,
+                new ChangeVersionService());
     }
 
     @Test
@@ -21,12 +21,15 @@ import com.karankumar.bookproject.backend.model.account.User;
 import com.karankumar.bookproject.backend.repository.BookRepository;
 import com.karankumar.bookproject.backend.repository.RoleRepository;
 import com.karankumar.bookproject.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -42,6 +45,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -68,6 +72,51 @@ class UserServiceTest {
         );
     }
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getCurrentUser_looksUpUserOnce_untilPasswordIsChanged() {
+        // given
+        String email = "test@gmail.com";
+        User user = User.builder().email(email).build();
+        SecurityContextHolder.getContext()
+                             .setAuthentication(new TestingAuthenticationToken(email, null));
+        given(userRepository.findByEmail(email)).willReturn(Optional.of(user));
+
+        // when
+        underTest.getCurrentUser();
+        User cachedUser = underTest.getCurrentUser();
+        underTest.changeUserPassword(cachedUser, "newPa$$123_Paf1");
+        underTest.getCurrentUser();
+
+        // then
+        assertThat(cachedUser).isSameAs(user);
+        verify(userRepository, times(2)).findByEmail(email);
+    }
+
+    @Test
+    void getCurrentUser_looksUpUserAgain_afterEncodedPasswordIsUpdated() {
+        // given
+        String email = "test@gmail.com";
+        User user = User.builder().email(email).build();
+        SecurityContextHolder.getContext()
+                             .setAuthentication(new TestingAuthenticationToken(email, null));
+        given(userRepository.findByEmail(email)).willReturn(Optional.of(user));
+
+        // when
+        underTest.getCurrentUser();
+        underTest.updateEncodedPassword(email, "{bcrypt}upgraded");
+        underTest.getCurrentUser();
+
+        // then
+        assertThat(user.getPassword()).isEqualTo("{bcrypt}upgraded");
+        verify(userRepository).save(user);
+        verify(userRepository, times(3)).findByEmail(email);
+    }
+
     @Test
     void register_throwsNullPointerException_ifUserIsNull() {
         assertThatExceptionOfType(NullPointerException.class)
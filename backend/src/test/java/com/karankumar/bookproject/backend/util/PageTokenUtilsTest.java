@@ -0,0 +1,47 @@
+/*
+ * The book project lets a user keep track of different books they would like to read, are currently
+ * reading, have read or did not finish.
+ * Copyright (C) 2021  Karan Kumar
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.backend.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PageTokenUtils should")
+class PageTokenUtilsTest {
+    @Test
+    void decodeAnEncodedToken() {
+        String token = PageTokenUtils.encode(42L);
+        assertThat(PageTokenUtils.decode(token)).contains(42L);
+    }
+
+    @Test
+    void produceAnOpaqueToken() {
+        assertThat(PageTokenUtils.encode(42L)).doesNotContain("42");
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {" ", "not a token", "aWQ6YWJj", "MTIz", "aWQ6LTE"})
+    void returnEmptyForMalformedTokens(String token) {
+        assertThat(PageTokenUtils.decode(token)).isEmpty();
+    }
+}
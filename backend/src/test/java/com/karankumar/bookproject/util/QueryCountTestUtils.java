@@ -0,0 +1,63 @@
+/*
+    The book project lets a user keep track of different books they would like to read, are currently
+    reading, have read or did not finish.
+    Copyright (C) 2020  Karan Kumar
+
+    This program is free software: you can redistribute it and/or modify it under the terms of the
+    GNU General Public License as published by the Free Software Foundation, either version 3 of the
+    License, or (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful, but WITHOUT ANY
+    WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+    PURPOSE.  See the GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along with this program.
+    If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.karankumar.bookproject.util;
+
+import com.karankumar.bookproject.backend.metrics.QueryCount;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Assertions on the SQL statements that an action runs. See {@link QueryCount}
+ */
+public class QueryCountTestUtils {
+    private QueryCountTestUtils() {}
+
+    public static void assertMaxQueries(int maxQueries, Runnable action) {
+        assertMaxQueries(maxQueries, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return the result of the action
+     */
+    public static <T> T assertMaxQueries(int maxQueries, Supplier<T> action) {
+        try (QueryCount queryCount = QueryCount.start()) {
+            T result = action.get();
+            assertThat(queryCount.getStatements())
+                    .as("SQL statements run: %s", queryCount.getStatementsByShape())
+                    .isLessThanOrEqualTo(maxQueries);
+            return result;
+        }
+    }
+
+    /**
+     * Fails if any statement shape is run {@code times} times or more, which is likely an N+1 query
+     */
+    public static void assertNoRepeatedQueries(int times, Runnable action) {
+        try (QueryCount queryCount = QueryCount.start()) {
+            action.run();
+            assertThat(queryCount.findRepeatedShapes(times))
+                    .as("SQL statements run at least %d times", times)
+                    .isEmpty();
+        }
+    }
+}